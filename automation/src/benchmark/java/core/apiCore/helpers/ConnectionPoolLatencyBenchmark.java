@@ -0,0 +1,83 @@
+package core.apiCore.helpers;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import core.apiCore.interfaces.RestApiInterface;
+import core.support.BenchmarkHelper;
+import core.support.UnitTestHelper;
+import core.support.logger.TestLog;
+import core.support.objects.ServiceObject;
+
+/**
+ * latency benchmark for the shared connection pool. sends the same requests to a
+ * local server with pooling disabled and enabled, and prints p50 and p99
+ * latency of both runs. run with: mvn test -Pbenchmark
+ * -Dtest=ConnectionPoolLatencyBenchmark
+ */
+public class ConnectionPoolLatencyBenchmark {
+
+	private static final int THREADS = 16;
+	private static final int ITERATIONS = 250;
+
+	private HttpServer server;
+
+	@BeforeClass
+	public void beforeClass() throws Exception {
+		server = UnitTestHelper.startServer(exchange -> {
+			byte[] body = "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		});
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void afterClass() {
+		server.stop(0);
+		HttpConnectionPool.shutdown();
+	}
+
+	@Test
+	public void comparePooledLatency() throws Exception {
+		List<Long> direct = sendRequests(false);
+		List<Long> pooled = sendRequests(true);
+
+		System.out.println("connection pool latency, requests: " + direct.size());
+		System.out.println(String.format("no pool: p50 %.2f ms p99 %.2f ms", BenchmarkHelper.getPercentile(direct, 50),
+				BenchmarkHelper.getPercentile(direct, 99)));
+		System.out.println(String.format("pool:    p50 %.2f ms p99 %.2f ms", BenchmarkHelper.getPercentile(pooled, 50),
+				BenchmarkHelper.getPercentile(pooled, 99)));
+		HttpConnectionPool.printPoolStatistics();
+	}
+
+	private List<Long> sendRequests(boolean isPoolEnabled) throws Exception {
+		int port = server.getAddress().getPort();
+
+		return BenchmarkHelper.runConcurrently(THREADS, ITERATIONS, (thread, iteration) -> {
+			String testId = "pool-" + thread;
+			Map<String, Object> config = new HashMap<String, Object>();
+			config.put(RestApiInterface.API_BASE_URL, "http://localhost:" + port);
+			config.put(HttpConnectionPool.API_CONNECTION_POOL_ENABLED, String.valueOf(isPoolEnabled));
+			config.put(TestLog.LOG_SKIP_CONSOLE, "true");
+			UnitTestHelper.bindTest(testId, config);
+			try {
+				ServiceObject serviceObject = new ServiceObject().withUriPath("/status");
+				Assert.assertEquals(RestApiInterface.setURI(serviceObject).get().statusCode(), 200);
+			} finally {
+				UnitTestHelper.unbindTest(testId);
+			}
+		});
+	}
+}
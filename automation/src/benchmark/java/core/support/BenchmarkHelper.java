@@ -0,0 +1,82 @@
+package core.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import core.support.UnitTestHelper.ThreadTask;
+
+/**
+ * timing and heap measurements for benchmarks. test objects, local servers and
+ * threads are set up with UnitTestHelper
+ */
+public class BenchmarkHelper {
+
+	/**
+	 * runs task on threads, started at the same time. rethrows the first failure
+	 * 
+	 * @param threads
+	 * @param iterations iterations per thread
+	 * @param task
+	 * @return latency of each iteration in nanoseconds
+	 * @throws Exception
+	 */
+	public static List<Long> runConcurrently(int threads, int iterations, ThreadTask task) throws Exception {
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<Long>(threads * iterations));
+		UnitTestHelper.runConcurrently(threads, iterations, (thread, iteration) -> {
+			long begin = System.nanoTime();
+			task.run(thread, iteration);
+			latencies.add(System.nanoTime() - begin);
+		});
+		return latencies;
+	}
+
+	/**
+	 * runs task calls times after the same number of warm up calls
+	 * 
+	 * @param calls
+	 * @param task
+	 * @return average time per call in nanoseconds
+	 */
+	public static double getNanosPerCall(int calls, Runnable task) {
+		for (int i = 0; i < calls; i++)
+			task.run();
+
+		long begin = System.nanoTime();
+		for (int i = 0; i < calls; i++)
+			task.run();
+		return (System.nanoTime() - begin) / (double) calls;
+	}
+
+	/**
+	 * gets percentile of latencies in milliseconds
+	 * 
+	 * @param latencies
+	 * @param percentile eg. 50, 99
+	 * @return
+	 */
+	public static double getPercentile(List<Long> latencies, double percentile) {
+		List<Long> sorted = new ArrayList<Long>(latencies);
+		Collections.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+		return sorted.get(Math.max(0, index)) / 1_000_000.0;
+	}
+
+	/**
+	 * gets used heap in bytes after garbage collection
+	 * 
+	 * @return
+	 */
+	public static long getUsedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,68 @@
+package core.support.configReader;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import core.support.BenchmarkHelper;
+import core.support.UnitTestHelper;
+import core.support.objects.TestObject;
+
+/**
+ * benchmark of config lookups on the hot path. the test config is layered over
+ * suite and class configs, as in a test run, and per call cost of present,
+ * absent and typed keys is printed in nanoseconds. run with: mvn test -Pbenchmark
+ * -Dtest=ConfigLookupBenchmark
+ */
+public class ConfigLookupBenchmark {
+
+	private static final String TEST_ID = "config-benchmark";
+	private static final int CALLS = 1_000_000;
+	private static final int SUITE_KEYS = 500;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		LayeredConfig suite = new LayeredConfig();
+		for (int i = 0; i < SUITE_KEYS; i++)
+			suite.put("suite.key." + i, "value" + i);
+		suite.put("benchmark.flag", "true");
+		suite.put("benchmark.count", "42");
+		suite.put("benchmark.ratio", "0.5");
+
+		Map<String, Object> classConfig = new LayeredConfig(suite.freeze());
+		classConfig.put("class.key", "value");
+
+		TestObject test = UnitTestHelper.bindTest(TEST_ID, new HashMap<String, Object>());
+		test.config = new LayeredConfig(classConfig);
+		test.config.put("test.key", "value");
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void afterMethod() {
+		UnitTestHelper.unbindTest(TEST_ID);
+	}
+
+	@Test
+	public void measureConfigLookups() {
+		print("getValue, test layer", BenchmarkHelper.getNanosPerCall(CALLS, () -> Config.getValue("test.key")));
+		print("getValue, suite layer", BenchmarkHelper.getNanosPerCall(CALLS, () -> Config.getValue("suite.key.250")));
+		print("getValue, absent key", BenchmarkHelper.getNanosPerCall(CALLS, () -> Config.getValue("absent.key")));
+		print("getBooleanValue", BenchmarkHelper.getNanosPerCall(CALLS, () -> Config.getBooleanValue("benchmark.flag")));
+		print("getIntValue", BenchmarkHelper.getNanosPerCall(CALLS, () -> Config.getIntValue("benchmark.count")));
+		print("getDoubleValue", BenchmarkHelper.getNanosPerCall(CALLS, () -> Config.getDoubleValue("benchmark.ratio")));
+
+		// writes invalidate cached values of the layer
+		int[] count = new int[1];
+		print("putValue and getValue", BenchmarkHelper.getNanosPerCall(CALLS / 10, () -> {
+			Config.putValue("test.key", "value" + (count[0]++ % 2), false);
+			Config.getValue("test.key");
+		}));
+	}
+
+	private static void print(String name, double nanos) {
+		System.out.println(String.format("%-25s %8.1f ns/call", name, nanos));
+	}
+}
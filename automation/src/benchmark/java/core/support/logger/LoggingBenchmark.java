@@ -0,0 +1,51 @@
+package core.support.logger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.aventstack.extentreports.ExtentReports;
+
+import core.support.BenchmarkHelper;
+import core.support.UnitTestHelper;
+import core.support.objects.TestObject;
+
+/**
+ * contention benchmark of test logging. 64 parallel tests log gherkin steps
+ * and console messages to one report, and the step latency and throughput are
+ * printed. run with: mvn test -Pbenchmark -Dtest=LoggingBenchmark
+ */
+public class LoggingBenchmark {
+
+	private static final int THREADS = 64;
+	private static final int STEPS = 1_000;
+
+	@Test
+	public void measureLoggingContention() throws Exception {
+		ExtentReports report = new ExtentReports();
+
+		long begin = System.nanoTime();
+		List<Long> latencies = BenchmarkHelper.runConcurrently(THREADS, STEPS, (thread, step) -> {
+			String testId = "logging-" + thread;
+			if (step == 0) {
+				TestObject test = UnitTestHelper.bindTest(testId, new HashMap<String, Object>());
+				test.testScenerio = report.createTest(testId);
+			}
+
+			TestLog.When("step {0} of test {1}", step, testId);
+			TestLog.logPass("response code: {0}", 200);
+			TestLog.Then("step {0} is verified", step);
+
+			if (step == STEPS - 1)
+				UnitTestHelper.unbindTest(testId);
+		});
+		AsyncLog.flush();
+		double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+		System.out.println(String.format("%d threads, %d steps: %.0f steps/s, p50 %.3f ms p99 %.3f ms", THREADS,
+				latencies.size(), latencies.size() / seconds, BenchmarkHelper.getPercentile(latencies, 50),
+				BenchmarkHelper.getPercentile(latencies, 99)));
+	}
+}
@@ -0,0 +1,69 @@
+package core.support.objects;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import core.apiCore.helpers.JsonHelper;
+import core.support.BenchmarkHelper;
+import core.support.UnitTestHelper;
+import core.support.configReader.Config;
+import core.support.logger.TestLog;
+
+/**
+ * benchmark of test context lookups. prints the per call cost of getTestInfo
+ * and config reads, and the time of json validation loops run by parallel
+ * tests. run with: mvn test -Pbenchmark -Dtest=TestContextBenchmark
+ */
+public class TestContextBenchmark {
+
+	private static final int CALLS = 1_000_000;
+	private static final int THREADS = 16;
+	private static final int ROWS = 500;
+	private static final int PATHS = 20;
+
+	@Test
+	public void measureTestInfoLookup() {
+		String testId = "context-benchmark";
+		UnitTestHelper.bindTest(testId, new HashMap<String, Object>());
+		try {
+			print("getTestInfo", BenchmarkHelper.getNanosPerCall(CALLS, TestObject::getTestInfo));
+			print("testInfo map lookup",
+					BenchmarkHelper.getNanosPerCall(CALLS, () -> TestObject.testInfo.get(TestObject.getTestId())));
+			print("getBooleanValue", BenchmarkHelper.getNanosPerCall(CALLS,
+					() -> Config.getBooleanValue(JsonHelper.failOnEscapeChars)));
+		} finally {
+			UnitTestHelper.unbindTest(testId);
+		}
+	}
+
+	@Test
+	public void measureValidationLoop() throws Exception {
+		StringBuilder json = new StringBuilder("{");
+		for (int i = 0; i < PATHS; i++)
+			json.append(i == 0 ? "" : ",").append("\"key").append(i).append("\":\"value").append(i).append("\"");
+		String response = json.append("}").toString();
+
+		List<Long> latencies = BenchmarkHelper.runConcurrently(THREADS, ROWS, (thread, row) -> {
+			String testId = "validation-" + thread;
+			Map<String, Object> config = new HashMap<String, Object>();
+			config.put(TestLog.LOG_SKIP_CONSOLE, "true");
+			UnitTestHelper.bindTest(testId, config);
+			try {
+				for (int i = 0; i < PATHS; i++)
+					JsonHelper.getJsonValue(response, "key" + i);
+			} finally {
+				JsonHelper.releaseParsedJson();
+				UnitTestHelper.unbindTest(testId);
+			}
+		});
+		System.out.println(String.format("validation row of %d paths, %d threads: p50 %.3f ms p99 %.3f ms", PATHS,
+				THREADS, BenchmarkHelper.getPercentile(latencies, 50), BenchmarkHelper.getPercentile(latencies, 99)));
+	}
+
+	private static void print(String name, double nanos) {
+		System.out.println(String.format("%-25s %8.1f ns/call", name, nanos));
+	}
+}
@@ -0,0 +1,76 @@
+package core.support.objects;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Priority;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import core.support.BenchmarkHelper;
+import core.support.UnitTestHelper;
+import core.support.logger.LogObject;
+
+/**
+ * soak benchmark for archiving of finished tests. runs many tests with logs and
+ * sub steps, and prints used heap at checkpoints. compacted tests are released,
+ * heap stays flat once the retention window is full. run with: mvn test
+ * -Pbenchmark -Dtest=TestObjectSoakBenchmark
+ */
+public class TestObjectSoakBenchmark {
+
+	private static final int TESTS = 20_000;
+	private static final int CHECKPOINT = 2_000;
+	private static final int LOGS_PER_TEST = 200;
+	private static final String LOG_LINE = StringUtils.repeat("x", 1024);
+
+	// ids of compacted tests are kept, about 100 bytes per test
+	private static final long MAX_GROWTH_BYTES = 16 * 1024 * 1024;
+
+	private final List<String> testIds = new ArrayList<String>();
+
+	@AfterMethod(alwaysRun = true)
+	public void afterMethod() {
+		for (String testId : testIds)
+			TestObject.testInfo.remove(testId);
+		testIds.clear();
+		TestObject.setCurrentTest(null, null);
+	}
+
+	@Test
+	public void verifyHeapIsFlat() {
+		Map<String, Object> config = new HashMap<String, Object>();
+		config.put(TestObject.TEST_ARCHIVE_RETAIN_COUNT, "100");
+
+		List<Long> heap = new ArrayList<Long>();
+		for (int i = 1; i <= TESTS; i++) {
+			TestObject test = runTest("soak-" + i, config);
+			TestObject.archiveTest(test);
+
+			if (i % CHECKPOINT == 0) {
+				heap.add(BenchmarkHelper.getUsedHeap());
+				System.out.println("tests: " + i + " used heap: " + heap.get(heap.size() - 1) / (1024 * 1024) + " mb");
+			}
+		}
+
+		long first = heap.get(0);
+		long last = heap.get(heap.size() - 1);
+		Assert.assertTrue(last - first < MAX_GROWTH_BYTES,
+				"heap grew from " + first / (1024 * 1024) + " mb to " + last / (1024 * 1024) + " mb");
+	}
+
+	private TestObject runTest(String testId, Map<String, Object> config) {
+		testIds.add(testId);
+		TestObject test = UnitTestHelper.bindTest(testId, config);
+		for (int j = 0; j < LOGS_PER_TEST; j++) {
+			test.testLog.add(new LogObject(LOG_LINE + j, Priority.INFO));
+			test.testSubSteps.add(LOG_LINE);
+		}
+		test.testLogAll = test.testLog;
+		return test;
+	}
+}
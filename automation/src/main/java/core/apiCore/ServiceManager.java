@@ -69,6 +69,8 @@ public class ServiceManager {
 	public static final String SERVICE_TIMEOUT_VALIDATION_ENABLED = "service.timeout.validation.isEnabled";
 	public static final String SERVICE_RESPONSE_DELAY_BETWEEN_ATTEMPTS_SECONDS = "service.timeout.validation.delay.between.attempt.seconds";
 	public static final String SERVICE_RESPONSE_DELAY_BETWEEN_ATTEMPTS_MULTIPLIER = "service.timeout.validation.delay.between.attempt.multiplier";
+	public static final String SERVICE_RESPONSE_DELAY_MAX_SECONDS = "service.timeout.validation.delay.max.seconds";
+	public static final String SERVICE_RESPONSE_DELAY_JITTER = "service.timeout.validation.delay.jitter";
 
 	public static final String OPTION_RETRY_COUNT = "RETRY_COUNT";
 	public static final String OPTION_RETRY_AFTER_SECONDS = "RETRY_AFTER_SECONDS";
@@ -387,11 +389,15 @@ public class ServiceManager {
 			switch (keyword.key) {
 			case DEPENDS_ON_TEST:
 				String testname = keyword.value.toString();
-				List<TestObject> childTests = ApiTestDriver.getParentTestObject(serviceObject).testObjects;
-				for (TestObject test : childTests) {
-					boolean isPass = test.caughtThrowable == null;
-					if (test.getTestName().equals(testname) && !isPass)
+				TestObject parent = ApiTestDriver.getParentTestObject(serviceObject);
+				synchronized (parent) {
+					if (parent.failedChildTests.contains(testname))
 						throw new SkipException("depends on failed test: " + testname);
+					for (TestObject test : parent.testObjects) {
+						boolean isPass = test.caughtThrowable == null;
+						if (test.getTestName().equals(testname) && !isPass)
+							throw new SkipException("depends on failed test: " + testname);
+					}
 				}
 				break;
 			default:
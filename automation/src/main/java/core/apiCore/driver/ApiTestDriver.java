@@ -1,6 +1,7 @@
 package core.apiCore.driver;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -10,6 +11,7 @@ import core.support.logger.TestLog;
 import core.support.objects.ServiceObject;
 import core.support.objects.TestObject;
 import core.support.objects.TestObject.testType;
+import core.uiCore.driverProperties.globalProperties.CrossPlatformProperties;
 import core.uiCore.drivers.AbstractDriverTestNG;
 
 public class ApiTestDriver {
@@ -63,12 +65,12 @@ public class ApiTestDriver {
 		String testId = TestObject.currentTestId.get();
 		TestLog.removeLogUtilHandler();
 
-		// initialize once per test in csv file
-		TestObject.initializeTest(testId);
-
-		// pass the parent config And logs to new test. parameters are passed from one
-		// test to another this way
-		TestObject.getTestInfo().config = getParentTestObject(serviceObject).config;
+		// initialize once per test in csv file. pass the parent config to new test.
+		// parameters are passed from one test to another this way
+		TestObject parent = getParentTestObject(serviceObject);
+		TestObject.initializeTest(testId, parent.config);
+		TestObject.getTestInfo().config = parent.config;
+		TestObject.getTestInfo().parentTest = parent;
 		
 		TestObject.getTestInfo().type = testType.service;
 		TestObject.getTestInfo().app = APP;
@@ -94,7 +96,10 @@ public class ApiTestDriver {
 	}
 	
 	public static TestObject getParentTestObject() {
-		return ApiTestDriver.getParentTestObject(TestObject.getTestInfo().serviceObject);
+		TestObject test = TestObject.getTestInfo();
+		if (test.parentTest != null)
+			return test.parentTest;
+		return ApiTestDriver.getParentTestObject(test.serviceObject);
 	}
 	
 	
@@ -107,23 +112,36 @@ public class ApiTestDriver {
 		String parentId = TestObject.getTestInfo().serviceObject.getParent();
 		if(!TestObject.isTestObjectSet(parentId)) return;
 		
-		// if service test, parent test objects keeps track of the child test objects
-		ApiTestDriver.getParentTestObject(parentId).testObjects.add(TestObject.getTestInfo());
+		// if service test, parent test objects keeps track of the child test objects.
+		// compacted child tests remove themselves
+		TestObject parent = ApiTestDriver.getParentTestObject(parentId);
+		synchronized (parent) {
+			parent.testObjects.add(TestObject.getTestInfo());
+		}
 	}
 	
 	/**
 	 * tracks test logs
 	 * getTestInfo().testLog: tracks logs of individual service tests
-	 * on test success or failure, contains all the logs of all tests for batch logging
+	 * on test success or failure, service test logs are appended to the log buffer of the csv file.
+	 * the test refers to the buffer, logs are not copied again
 	 */
 	public static void trackBatchTestLogs() {
-		TestObject.getTestInfo().testLogAll = new ArrayList<LogObject>();
+		TestObject test = TestObject.getTestInfo();
 		
-		if(isRunningServiceTest()) {
-			ApiTestDriver.getParentTestObject().testLog.addAll(TestObject.getTestInfo().testLog);
-			TestObject.getTestInfo().testLogAll.addAll(ApiTestDriver.getParentTestObject().testLog);
+		if(isRunningServiceTest() && CrossPlatformProperties.getEnableBatchLogging()) {
+			// test logs are guarded by their test object, locks are not nested
+			List<LogObject> logs;
+			synchronized (test) {
+				logs = new ArrayList<LogObject>(test.testLog);
+			}
+			TestObject parent = ApiTestDriver.getParentTestObject();
+			synchronized (parent) {
+				parent.testLog.addAll(logs);
+			}
+			test.testLogAll = parent.testLog;
 		}else
-			TestObject.getTestInfo().testLogAll.addAll(TestObject.getTestInfo().testLog);
+			test.testLogAll = test.testLog;
 	}
 
 	/**
@@ -0,0 +1,269 @@
+package core.apiCore.helpers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.json.JSONObject;
+
+import core.support.configReader.Config;
+import core.support.logger.TestLog;
+import io.restassured.response.Response;
+
+/**
+ * process wide authentication token cache, keyed by auth endpoint, credentials
+ * and scope. tokens expire based on expires_in or the jwt exp claim and are
+ * refreshed in the background before expiry, as long as a test used the token
+ * since it was received. concurrent lookups for the same key share a single
+ * token request
+ */
+public class AuthTokenCache {
+
+	public static final String AUTH_TOKEN_REFRESH_BEFORE_SECONDS = "auth.token.refresh.before.seconds";
+	public static final String AUTH_TOKEN_DEFAULT_TTL_SECONDS = "auth.token.default.ttl.seconds";
+
+	private static final int DEFAULT_REFRESH_BEFORE_SECONDS = 60;
+
+	// key: endpoint and hash of credentials and scope
+	private static Map<String, CompletableFuture<Token>> tokens = new ConcurrentHashMap<String, CompletableFuture<Token>>();
+
+	// key: token key, value: last lookup time in milliseconds
+	private static Map<String, Long> lastUsed = new ConcurrentHashMap<String, Long>();
+
+	private static ScheduledExecutorService refresher = null;
+
+	/**
+	 * gets cache key for the auth endpoint. credentials are hashed
+	 *
+	 * @param endpoint
+	 * @param credentials credentials and scope values
+	 * @return
+	 */
+	public static String getKey(String endpoint, String... credentials) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String credential : credentials) {
+				digest.update(String.valueOf(credential).getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			return endpoint + "#" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * gets valid token for key. the first lookup, or the first after expiry,
+	 * requests the token. concurrent lookups wait for the same request
+	 *
+	 * @param key
+	 * @param tokenRequest   sends the token request
+	 * @param refreshRequest sends the token request for background refresh. runs
+	 *                       without test context, must not depend on the test.
+	 *                       null for no refresh
+	 * @return
+	 */
+	public static Token getToken(String key, Supplier<Response> tokenRequest, Supplier<Response> refreshRequest) {
+		while (true) {
+			CompletableFuture<Token> token = tokens.get(key);
+			if (token == null) {
+				CompletableFuture<Token> request = new CompletableFuture<Token>();
+				token = tokens.putIfAbsent(key, request);
+
+				// this thread won the lookup, request the token
+				if (token == null) {
+					try {
+						int defaultTtlSeconds = Config.getIntValue(AUTH_TOKEN_DEFAULT_TTL_SECONDS);
+						Token result = Token.fromResponse(tokenRequest.get(), defaultTtlSeconds);
+						request.complete(result);
+
+						int refreshBeforeSeconds = Config.getIntValue(AUTH_TOKEN_REFRESH_BEFORE_SECONDS);
+						if (refreshBeforeSeconds == -1)
+							refreshBeforeSeconds = DEFAULT_REFRESH_BEFORE_SECONDS;
+						if (refreshRequest != null)
+							scheduleRefresh(new Refresh(key, refreshRequest, refreshBeforeSeconds, defaultTtlSeconds),
+									result);
+					} catch (RuntimeException e) {
+						// release waiting threads, next lookup requests again
+						tokens.remove(key, request);
+						request.completeExceptionally(e);
+						throw e;
+					}
+					token = request;
+				}
+			}
+
+			Token result = ServiceExecutor.join(token);
+			if (!result.isExpired()) {
+				lastUsed.put(key, System.currentTimeMillis());
+				return result;
+			}
+
+			// expired. the first thread to remove it requests again
+			tokens.remove(key, token);
+		}
+	}
+
+	/**
+	 * removes all tokens and stops background refresh. called at the end of the
+	 * test run
+	 */
+	public static synchronized void clear() {
+		tokens.clear();
+		lastUsed.clear();
+		if (refresher != null) {
+			refresher.shutdownNow();
+			refresher = null;
+		}
+	}
+
+	/**
+	 * refreshes token before it expires. the current token stays in use until
+	 * the new one is received. refresh stops if no test used the token since it
+	 * was received, the next lookup requests it again once expired. on failure,
+	 * the token is requested again once expired
+	 */
+	private static void scheduleRefresh(Refresh refresh, Token token) {
+		if (token.expiresAt == Long.MAX_VALUE)
+			return;
+
+		long delay = token.expiresAt - refresh.refreshBeforeSeconds * 1000L - System.currentTimeMillis();
+		if (delay <= 0)
+			return;
+
+		getRefresher().schedule(() -> {
+			if (lastUsed.getOrDefault(refresh.key, 0L) < token.receivedAt)
+				return;
+
+			try {
+				Token refreshed = Token.fromResponse(refresh.request.get(), refresh.defaultTtlSeconds);
+				tokens.put(refresh.key, CompletableFuture.completedFuture(refreshed));
+				scheduleRefresh(refresh, refreshed);
+			} catch (Exception e) {
+				TestLog.ConsoleLogWarn("auth token refresh failed, token is requested again once expired. error: "
+						+ e.getMessage());
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private static synchronized ScheduledExecutorService getRefresher() {
+		if (refresher == null) {
+			refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "auth-token-refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return refresher;
+	}
+
+	/**
+	 * background refresh of a token key. config values are read by the test that
+	 * requested the token
+	 */
+	private static class Refresh {
+		final String key;
+		final Supplier<Response> request;
+		final int refreshBeforeSeconds;
+		final int defaultTtlSeconds;
+
+		Refresh(String key, Supplier<Response> request, int refreshBeforeSeconds, int defaultTtlSeconds) {
+			this.key = key;
+			this.request = request;
+			this.refreshBeforeSeconds = refreshBeforeSeconds;
+			this.defaultTtlSeconds = defaultTtlSeconds;
+		}
+	}
+
+	/**
+	 * access token with expiry
+	 */
+	public static class Token {
+		public final String accessToken;
+		public final String tokenType;
+		public final long receivedAt;
+		public final long expiresAt;
+
+		Token(String accessToken, String tokenType, long expiresAt) {
+			this.accessToken = accessToken;
+			this.tokenType = tokenType;
+			this.receivedAt = System.currentTimeMillis();
+			this.expiresAt = expiresAt;
+		}
+
+		/**
+		 * authorization header value. eg. Bearer token
+		 *
+		 * @return
+		 */
+		public String getAuthorization() {
+			return tokenType + " " + accessToken;
+		}
+
+		public boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
+
+		/**
+		 * parses token response. expiry from expires_in, else from jwt exp claim, else
+		 * from default ttl. no expiry if none is set
+		 *
+		 * @param response
+		 * @param defaultTtl AUTH_TOKEN_DEFAULT_TTL_SECONDS, -1 if not set
+		 * @return
+		 */
+		static Token fromResponse(Response response, int defaultTtl) {
+			if (response == null)
+				throw new IllegalStateException("no token response returned");
+			// response body is not included, it may contain credentials
+			if (response.getStatusCode() >= 400)
+				throw new IllegalStateException("token request failed with status code: " + response.getStatusCode());
+
+			JSONObject body = new JSONObject(response.getBody().asString());
+			String accessToken = body.optString("access_token");
+			if (accessToken.isEmpty())
+				throw new IllegalStateException("access_token not found in token response");
+			String tokenType = body.optString("token_type", "Bearer");
+
+			long expiresAt = Long.MAX_VALUE;
+			long expiresIn = body.optLong("expires_in", -1);
+			long jwtExpiry = getJwtExpiry(accessToken);
+
+			if (expiresIn > 0)
+				expiresAt = System.currentTimeMillis() + expiresIn * 1000;
+			else if (jwtExpiry > 0)
+				expiresAt = jwtExpiry * 1000;
+			else if (defaultTtl > 0)
+				expiresAt = System.currentTimeMillis() + defaultTtl * 1000L;
+
+			TestLog.ConsoleLog("auth token received, expires in seconds: "
+					+ (expiresAt == Long.MAX_VALUE ? "never" : (expiresAt - System.currentTimeMillis()) / 1000));
+			return new Token(accessToken, tokenType, expiresAt);
+		}
+
+		/**
+		 * gets exp claim in seconds of jwt token
+		 *
+		 * @param token
+		 * @return -1 if not a jwt token or no exp claim
+		 */
+		private static long getJwtExpiry(String token) {
+			String[] parts = token.split("\\.");
+			if (parts.length != 3)
+				return -1;
+			try {
+				String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+				return new JSONObject(payload).optLong("exp", -1);
+			} catch (Exception e) {
+				return -1;
+			}
+		}
+	}
+}
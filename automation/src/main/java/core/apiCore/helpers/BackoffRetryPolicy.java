@@ -0,0 +1,83 @@
+package core.apiCore.helpers;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import core.apiCore.ServiceManager;
+import core.support.configReader.Config;
+
+/**
+ * exponential backoff with jitter. delay after attempt n: initialDelay *
+ * multiplier^(n-1), capped at maxDelay, reduced by up to jitter fraction at
+ * random. no delay if initial delay is not set
+ */
+public class BackoffRetryPolicy implements RetryPolicy {
+
+	private double initialDelaySeconds = 0;
+	private double multiplier = 1;
+	private double maxDelaySeconds = -1;
+	private double jitter = 0;
+
+	/**
+	 * policy from the current test config
+	 * 
+	 * @return
+	 */
+	public static BackoffRetryPolicy fromConfig() {
+		BackoffRetryPolicy policy = new BackoffRetryPolicy();
+
+		double initialDelay = Config.getDoubleValue(ServiceManager.SERVICE_RESPONSE_DELAY_BETWEEN_ATTEMPTS_SECONDS);
+		if (initialDelay != -1)
+			policy.withInitialDelaySeconds(initialDelay);
+
+		double multiplier = Config.getDoubleValue(ServiceManager.SERVICE_RESPONSE_DELAY_BETWEEN_ATTEMPTS_MULTIPLIER);
+		if (multiplier != -1)
+			policy.withMultiplier(multiplier);
+
+		policy.withMaxDelaySeconds(Config.getDoubleValue(ServiceManager.SERVICE_RESPONSE_DELAY_MAX_SECONDS));
+
+		double jitter = Config.getDoubleValue(ServiceManager.SERVICE_RESPONSE_DELAY_JITTER);
+		if (jitter != -1)
+			policy.withJitter(jitter);
+
+		return policy;
+	}
+
+	public BackoffRetryPolicy withInitialDelaySeconds(double initialDelaySeconds) {
+		this.initialDelaySeconds = initialDelaySeconds;
+		return this;
+	}
+
+	public BackoffRetryPolicy withMultiplier(double multiplier) {
+		this.multiplier = multiplier;
+		return this;
+	}
+
+	/**
+	 * @param maxDelaySeconds -1 for no cap
+	 * @return
+	 */
+	public BackoffRetryPolicy withMaxDelaySeconds(double maxDelaySeconds) {
+		this.maxDelaySeconds = maxDelaySeconds;
+		return this;
+	}
+
+	/**
+	 * @param jitter fraction of the delay, between 0 and 1
+	 * @return
+	 */
+	public BackoffRetryPolicy withJitter(double jitter) {
+		this.jitter = Math.max(0, Math.min(1, jitter));
+		return this;
+	}
+
+	@Override
+	public double getDelaySeconds(int attempt) {
+		double delay = initialDelaySeconds * Math.pow(multiplier, Math.max(0, attempt - 1));
+		if (maxDelaySeconds >= 0)
+			delay = Math.min(delay, maxDelaySeconds);
+
+		if (jitter > 0)
+			delay -= delay * jitter * ThreadLocalRandom.current().nextDouble();
+		return delay;
+	}
+}
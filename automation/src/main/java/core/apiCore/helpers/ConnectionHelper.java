@@ -1,6 +1,5 @@
 package core.apiCore.helpers;
 
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 
@@ -16,38 +15,49 @@ public class ConnectionHelper {
 	private static final String SSH_LPORT = "ssh.lport";
 	private static final String SSH_RHOST = "ssh.rHost";
 	private static final String SSH_RPORT = "ssh.rport";
+	private static final String SSH_KEEP_ALIVE_SECONDS = "ssh.keepAlive.seconds";
 
 	/**
 	 * ssh connection supports port forwarding as well if host is empty, Then return
-	 * if rhost is empty, return for port forwarding
+	 * if rhost is empty, return for port forwarding. session and forwards are
+	 * shared across connections through the same ssh host. dropped sessions are
+	 * re-established with their forwards by the tunnel monitor and on the next
+	 * connect. requests in flight over a dropped tunnel fail and are not retried
 	 */
 	public static void sshConnect() {
 		String user = Config.getValue(SSH_USER);
 		String password = Config.getValue(SSH_PASSWORD);
 		String host = Config.getValue(SSH_HOST);
 		int port = Config.getIntValue(SSH_PORT);
+		int keepAliveSeconds = Config.getIntValue(SSH_KEEP_ALIVE_SECONDS);
 
 		if (host.isEmpty())
 			return;
 
-		Session session = null;
 		try {
-			JSch jsch = new JSch();
-			if (port != -1)
-				session = jsch.getSession(user, host, port);
-			else
-				session = jsch.getSession(user, host);
-
-			session.setPassword(password);
-			session.setConfig("StrictHostKeyChecking", "no");
-			TestLog.ConsoleLog("Establishing Connection...");
-			session.connect();
-			setPortForwarding(session);
+			String rhost = Config.getValue(SSH_RHOST);
+			if (rhost.isEmpty()) {
+				SshTunnelManager.getSession(user, password, host, port, keepAliveSeconds);
+				return;
+			}
+
+			int lport = Config.getIntValue(SSH_LPORT);
+			int rport = Config.getIntValue(SSH_RPORT);
+			SshTunnelManager.forwardPort(user, password, host, port, keepAliveSeconds, lport, rhost, rport);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * sets port forwarding on the session from ssh.lport, ssh.rHost, ssh.rport
+	 * 
+	 * @deprecated forwards are set by sshConnect on the shared tunnel session, so
+	 *             they are restored when the session is re-established
+	 * @param session
+	 * @throws JSchException
+	 */
+	@Deprecated
 	public static void setPortForwarding(Session session) throws JSchException {
 		int lport = Config.getIntValue(SSH_LPORT);
 		String rhost = Config.getValue(SSH_RHOST);
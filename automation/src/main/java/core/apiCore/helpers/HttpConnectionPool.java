@@ -0,0 +1,300 @@
+package core.apiCore.helpers;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+
+import core.support.configReader.Config;
+import core.support.logger.TestLog;
+import io.restassured.config.HttpClientConfig.HttpClientFactory;
+
+/**
+ * shared keep alive connection pool for rest api calls. rest assured creates a
+ * light weight client per request, all clients lease connections from the same
+ * pool, so tcp and tls handshakes are only done for new connections. idle
+ * connections and leases held beyond the lease time are closed in the
+ * background. disabled by default, enable with api.connection.pool.isEnabled
+ */
+@SuppressWarnings("deprecation")
+public class HttpConnectionPool {
+
+	public static final String API_CONNECTION_POOL_ENABLED = "api.connection.pool.isEnabled";
+	public static final String API_CONNECTION_POOL_MAX_TOTAL = "api.connection.pool.maxTotal";
+	public static final String API_CONNECTION_POOL_MAX_PER_ROUTE = "api.connection.pool.maxPerRoute";
+	public static final String API_CONNECTION_POOL_IDLE_SECONDS = "api.connection.pool.idle.seconds";
+	public static final String API_CONNECTION_POOL_KEEP_ALIVE_SECONDS = "api.connection.pool.keepAlive.seconds";
+	public static final String API_CONNECTION_POOL_LEASE_SECONDS = "api.connection.pool.lease.seconds";
+
+	private static final int DEFAULT_MAX_TOTAL = 200;
+	private static final int DEFAULT_MAX_PER_ROUTE = 20;
+	private static final int DEFAULT_IDLE_SECONDS = 30;
+	private static final int DEFAULT_KEEP_ALIVE_SECONDS = 30;
+	private static final int DEFAULT_LEASE_SECONDS = 300;
+
+	// relaxed https validation registers its own ssl scheme on the connection
+	// manager, so relaxed and strict requests use separate pools. key: isRelaxed
+	private static Map<Boolean, SharedConnectionManager> pools = new ConcurrentHashMap<Boolean, SharedConnectionManager>();
+
+	private static AtomicLong leaseCount = new AtomicLong();
+	private static AtomicLong reuseCount = new AtomicLong();
+
+	private static ScheduledExecutorService evictor = null;
+
+	/**
+	 * returns true if pooling is enabled. disabled by default
+	 *
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return Config.getBooleanValue(API_CONNECTION_POOL_ENABLED);
+	}
+
+	/**
+	 * gets client factory for rest assured, backed by the shared pool
+	 *
+	 * @param isRelaxedHttps
+	 * @return
+	 */
+	public static HttpClientFactory getClientFactory(boolean isRelaxedHttps) {
+		SharedConnectionManager manager = getConnectionManager(isRelaxedHttps);
+		int keepAliveSeconds = getConfigInt(API_CONNECTION_POOL_KEEP_ALIVE_SECONDS, DEFAULT_KEEP_ALIVE_SECONDS);
+
+		return () -> {
+			DefaultHttpClient client = new DefaultHttpClient(new ClientConnections(manager));
+
+			// use keep alive from response header, else the configured duration
+			client.setKeepAliveStrategy((response, context) -> {
+				long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+				return duration > 0 ? duration : keepAliveSeconds * 1000L;
+			});
+			return client;
+		};
+	}
+
+	/**
+	 * logs connection pool hit rate: leased connections that were reused
+	 */
+	public static void printPoolStatistics() {
+		long leases = leaseCount.get();
+		if (leases == 0)
+			return;
+
+		long reused = reuseCount.get();
+		TestLog.ConsoleLog("http connection pool: requests: " + leases + " reused connections: " + reused
+				+ " hit rate: " + String.format("%.1f", reused * 100.0 / leases) + "%");
+	}
+
+	/**
+	 * closes all pooled connections. called at the end of the test run
+	 */
+	public static synchronized void shutdown() {
+		printPoolStatistics();
+
+		for (SharedConnectionManager manager : pools.values())
+			manager.shutdown();
+		pools.clear();
+
+		if (evictor != null) {
+			evictor.shutdownNow();
+			evictor = null;
+		}
+	}
+
+	private static synchronized SharedConnectionManager getConnectionManager(boolean isRelaxedHttps) {
+		SharedConnectionManager manager = pools.get(isRelaxedHttps);
+		if (manager != null)
+			return manager;
+
+		manager = new SharedConnectionManager();
+		manager.setMaxTotal(getConfigInt(API_CONNECTION_POOL_MAX_TOTAL, DEFAULT_MAX_TOTAL));
+		manager.setDefaultMaxPerRoute(getConfigInt(API_CONNECTION_POOL_MAX_PER_ROUTE, DEFAULT_MAX_PER_ROUTE));
+		pools.put(isRelaxedHttps, manager);
+
+		startEvictor();
+		return manager;
+	}
+
+	/**
+	 * closes expired and idle connections in the background
+	 */
+	private static void startEvictor() {
+		if (evictor != null)
+			return;
+
+		int idleSeconds = getConfigInt(API_CONNECTION_POOL_IDLE_SECONDS, DEFAULT_IDLE_SECONDS);
+		int leaseSeconds = getConfigInt(API_CONNECTION_POOL_LEASE_SECONDS, DEFAULT_LEASE_SECONDS);
+		evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "http-pool-evictor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		evictor.scheduleWithFixedDelay(() -> {
+			for (SharedConnectionManager manager : pools.values()) {
+				manager.closeExpiredConnections();
+				manager.closeIdleConnections(idleSeconds, TimeUnit.SECONDS);
+				manager.abortExpiredLeases(leaseSeconds * 1000L);
+			}
+		}, idleSeconds, idleSeconds, TimeUnit.SECONDS);
+	}
+
+	private static int getConfigInt(String key, int defaultValue) {
+		int value = Config.getIntValue(key);
+		return value == -1 ? defaultValue : value;
+	}
+
+	/**
+	 * pooling connection manager shared by all clients. counts leases served by an
+	 * open, reused connection and keeps the lease time of connections in use
+	 */
+	private static class SharedConnectionManager extends PoolingClientConnectionManager {
+
+		// key: leased connection, value: lease time in milliseconds
+		private final Map<ManagedClientConnection, Long> leases = new ConcurrentHashMap<ManagedClientConnection, Long>();
+
+		SharedConnectionManager() {
+			super(SchemeRegistryFactory.createDefault());
+		}
+
+		@Override
+		public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+			ClientConnectionRequest request = super.requestConnection(route, state);
+			return new ClientConnectionRequest() {
+
+				@Override
+				public ManagedClientConnection getConnection(long timeout, TimeUnit tunit)
+						throws InterruptedException, ConnectionPoolTimeoutException {
+					ManagedClientConnection connection = request.getConnection(timeout, tunit);
+					leases.put(connection, System.currentTimeMillis());
+					leaseCount.incrementAndGet();
+					if (connection.isOpen())
+						reuseCount.incrementAndGet();
+					return connection;
+				}
+
+				@Override
+				public void abortRequest() {
+					request.abortRequest();
+				}
+			};
+		}
+
+		@Override
+		public void releaseConnection(ManagedClientConnection connection, long keepalive, TimeUnit tunit) {
+			leases.remove(connection);
+			super.releaseConnection(connection, keepalive, tunit);
+		}
+
+		/**
+		 * closes connections leased longer than max lease time. eg. response entity
+		 * not consumed
+		 * 
+		 * @param maxLeaseMillis
+		 */
+		void abortExpiredLeases(long maxLeaseMillis) {
+			long now = System.currentTimeMillis();
+			for (Map.Entry<ManagedClientConnection, Long> lease : leases.entrySet()) {
+				if (now - lease.getValue() < maxLeaseMillis)
+					continue;
+
+				TestLog.ConsoleLog("http connection pool: closing connection leased for over " + maxLeaseMillis / 1000
+						+ " seconds");
+				abort(lease.getKey());
+				leases.remove(lease.getKey());
+			}
+		}
+	}
+
+	/**
+	 * connection manager of a single client, backed by the shared pool. rest
+	 * assured shuts down the connection manager after each response, connections
+	 * the client still holds are closed and returned to the pool, as without
+	 * pooling
+	 */
+	private static class ClientConnections implements ClientConnectionManager {
+		private final SharedConnectionManager manager;
+		private final Set<ManagedClientConnection> connections = ConcurrentHashMap.newKeySet();
+
+		ClientConnections(SharedConnectionManager manager) {
+			this.manager = manager;
+		}
+
+		@Override
+		public SchemeRegistry getSchemeRegistry() {
+			return manager.getSchemeRegistry();
+		}
+
+		@Override
+		public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+			ClientConnectionRequest request = manager.requestConnection(route, state);
+			return new ClientConnectionRequest() {
+
+				@Override
+				public ManagedClientConnection getConnection(long timeout, TimeUnit tunit)
+						throws InterruptedException, ConnectionPoolTimeoutException {
+					ManagedClientConnection connection = request.getConnection(timeout, tunit);
+					connections.add(connection);
+					return connection;
+				}
+
+				@Override
+				public void abortRequest() {
+					request.abortRequest();
+				}
+			};
+		}
+
+		@Override
+		public void releaseConnection(ManagedClientConnection connection, long validDuration, TimeUnit timeUnit) {
+			connections.remove(connection);
+			manager.releaseConnection(connection, validDuration, timeUnit);
+		}
+
+		@Override
+		public void closeExpiredConnections() {
+			manager.closeExpiredConnections();
+		}
+
+		@Override
+		public void closeIdleConnections(long idletime, TimeUnit tunit) {
+			manager.closeIdleConnections(idletime, tunit);
+		}
+
+		@Override
+		public void shutdown() {
+			// connections released through the response entity are already back in the
+			// pool, abort has no effect on them
+			for (ManagedClientConnection connection : connections)
+				abort(connection);
+			connections.clear();
+		}
+	}
+
+	/**
+	 * closes leased connection and returns it to the pool
+	 * 
+	 * @param connection
+	 */
+	private static void abort(ManagedClientConnection connection) {
+		try {
+			connection.abortConnection();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -1,11 +1,15 @@
 package core.apiCore.helpers;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
@@ -36,6 +40,17 @@ public class JsonHelper {
 
 	public static String failOnEscapeChars = "service.validation.fail.on.escapechars";
 
+	// decoded response bodies. entries are removed once the response is released
+	private static Map<Response, String> responseBodies = Collections.synchronizedMap(new WeakHashMap<Response, String>());
+
+	// response bodies written to file above the spool threshold. json paths of spooled bodies
+	// are read from the document parsed from the file, the body is not decoded to string
+	private static Map<Response, SpooledBody> spooledBodies = Collections.synchronizedMap(new WeakHashMap<Response, SpooledBody>());
+
+	// last parsed json document per thread. validations read many paths from the same response.
+	// released once the response is validated
+	private static ThreadLocal<ParsedJson> parsedJson = new ThreadLocal<ParsedJson>();
+
 	/**
 	 * replaces output parameter with response values eg. $token with id form values
 	 * are in form of list separated by ";"
@@ -112,7 +127,7 @@ public class JsonHelper {
 	 * @return
 	 */
 	public static String getJsonValue(Response response, String path) {
-		String jsonResponse = response.getBody().asString();
+		String jsonResponse = getJsonPathSource(response);
 		String value = getJsonValue(jsonResponse, path);
 		return value;
 	}
@@ -179,11 +194,16 @@ public class JsonHelper {
 		String prefix = "$.";
 		Object values = null;
 
-		// validate escape characters in json
-		isJSONValid(json, true);
-		if (Config.getBooleanValue(failOnEscapeChars) && containsEscapeChar(json))
-			Helper.assertFalse("invalid escape character in json. invalid chars are: \\\", \\b, "
-					+ "\\n, \\r, \\f, \\', \\\\: " + json);
+		// validate escape characters in json. skipped if json is already parsed
+		ParsedJson parsed = parsedJson.get();
+		if (parsed == null || parsed.json != json) {
+			isJSONValid(json, true);
+			if (Config.getBooleanValue(failOnEscapeChars) && containsEscapeChar(json))
+				Helper.assertFalse("invalid escape character in json. invalid chars are: \\\", \\b, "
+						+ "\\n, \\r, \\f, \\', \\\\: " + TestLog.setMaxLength(json));
+			parsed = new ParsedJson(json, Configuration.defaultConfiguration().jsonProvider().parse(json));
+			parsedJson.set(parsed);
+		}
 
 		// in case user forgets to remove prefix
 		if (path.startsWith(prefix))
@@ -197,7 +217,7 @@ public class JsonHelper {
 		else
 			config = Configuration.defaultConfiguration();
 
-		ReadContext ctx = JsonPath.using(config).parse(json);
+		ReadContext ctx = JsonPath.using(config).parse(parsed.document);
 		
 		if(path.equals("."))
 			return json;
@@ -211,7 +231,7 @@ public class JsonHelper {
 				values = getJsonValue(json, path, false);
 			else
 				if(checkError)
-					TestLog.logWarning("invalid path: '" + path + "' for json string: " + json
+					TestLog.logWarning("invalid path: '" + path + "' for json string: " + TestLog.setMaxLength(json)
 						+ "\n. see http://jsonpath.herokuapp.com to validate your path against json string. see https://github.com/json-path/JsonPath for more info. \n"
 						+ e.getMessage());
 		}
@@ -309,8 +329,93 @@ public class JsonHelper {
 		return jsonString;
 	}
 
+	/**
+	 * releases the parsed json document of the current thread
+	 */
+	public static void releaseParsedJson() {
+		parsedJson.remove();
+	}
+
+	/**
+	 * gets response body as string. the body is decoded once per response
+	 * 
+	 * @param response
+	 * @return
+	 */
 	public static String getResponseValue(Response response) {
-		return response.getBody().asString();
+		String body = responseBodies.get(response);
+		if (body == null) {
+			body = response.getBody().asString();
+			responseBodies.put(response, body);
+		}
+		return body;
+	}
+
+	/**
+	 * gets size of the response body in bytes, without decoding it
+	 * 
+	 * @param response
+	 * @return
+	 */
+	public static long getResponseSize(Response response) {
+		return response.getBody().asByteArray().length;
+	}
+
+	/**
+	 * marks response body as spooled to file
+	 * 
+	 * @param response
+	 * @param file
+	 */
+	public static void setSpooledBody(Response response, File file) {
+		spooledBodies.put(response, new SpooledBody(file));
+	}
+
+	/**
+	 * gets response for validation against expected response. if the body is
+	 * spooled and all criteria are json paths, the paths are read from the spooled
+	 * file and the body is not decoded
+	 * 
+	 * @param response
+	 * @param expectedResponse
+	 * @return
+	 */
+	public static String getResponseValue(Response response, String expectedResponse) {
+		for (String criterion : expectedResponse.split(DataHelper.VALIDATION_AND_CONDITION + "|"
+				+ DataHelper.VALIDATION_OR_CONDITION_ECODE)) {
+			criterion = StringUtils.strip(Helper.stringRemoveLines(criterion), " ()");
+			if (!criterion.isEmpty() && !criterion.startsWith(DataHelper.VERIFY_JSON_PART_INDICATOR)
+					&& !criterion.startsWith(DataHelper.VERIFY_JSON_PART_INDICATOR_UNDERSCORE))
+				return getResponseValue(response);
+		}
+		return getJsonPathSource(response);
+	}
+
+	/**
+	 * gets json for json path lookups of the response. for spooled bodies, the
+	 * document is parsed from the file for the current thread and the returned
+	 * value only references the file
+	 * 
+	 * @param response
+	 * @return
+	 */
+	private static String getJsonPathSource(Response response) {
+		SpooledBody spooled = spooledBodies.get(response);
+		if (spooled == null)
+			return getResponseValue(response);
+
+		ParsedJson parsed = parsedJson.get();
+		if (parsed != null && parsed.json == spooled.reference)
+			return spooled.reference;
+
+		// json is utf-8 encoded. not json, eg. xml, is decoded as usual
+		try (InputStream body = new FileInputStream(spooled.file)) {
+			Object document = Configuration.defaultConfiguration().jsonProvider().parse(body, "UTF-8");
+			parsedJson.set(new ParsedJson(spooled.reference, document));
+			return spooled.reference;
+		} catch (Exception e) {
+			return getResponseValue(response);
+		}
 	}
 
 	/**
@@ -776,4 +881,27 @@ public class JsonHelper {
 		list.removeAll(Collections.singleton(""));
 		return list;
 	}
+
+	/**
+	 * json string with its parsed document
+	 */
+	private static class SpooledBody {
+		private final File file;
+		private final String reference;
+
+		SpooledBody(File file) {
+			this.file = file;
+			this.reference = "spooled response body: " + file.getAbsolutePath();
+		}
+	}
+
+	private static class ParsedJson {
+		private final String json;
+		private final Object document;
+
+		ParsedJson(String json, Object document) {
+			this.json = json;
+			this.document = document;
+		}
+	}
 }
@@ -0,0 +1,95 @@
+package core.apiCore.helpers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * thread safe latency histogram in microseconds with log linear buckets.
+ * values below 128 are exact, larger values are recorded with 64 sub buckets
+ * per power of 2, about 1.6% precision, using constant memory
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40;
+
+	private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKET_COUNT * (MAX_EXPONENT + 2));
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong totalMicros = new AtomicLong();
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	/**
+	 * records latency
+	 *
+	 * @param nanos
+	 */
+	public void recordNanos(long nanos) {
+		long micros = Math.max(0, nanos / 1000);
+		counts.incrementAndGet(getIndex(micros));
+		totalCount.incrementAndGet();
+		totalMicros.addAndGet(micros);
+		maxMicros.accumulateAndGet(micros, Math::max);
+	}
+
+	public long getTotalCount() {
+		return totalCount.get();
+	}
+
+	/**
+	 * @return mean latency in milliseconds
+	 */
+	public double getMeanMillis() {
+		long count = totalCount.get();
+		return count == 0 ? 0 : totalMicros.get() / 1000.0 / count;
+	}
+
+	/**
+	 * @return max latency in milliseconds
+	 */
+	public double getMaxMillis() {
+		return maxMicros.get() / 1000.0;
+	}
+
+	/**
+	 * gets latency at percentile
+	 *
+	 * @param percentile eg. 99.9
+	 * @return latency in milliseconds
+	 */
+	public double getPercentileMillis(double percentile) {
+		long count = totalCount.get();
+		if (count == 0)
+			return 0;
+
+		long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= target)
+				return Math.min(getValue(i), maxMicros.get()) / 1000.0;
+		}
+		return getMaxMillis();
+	}
+
+	private static int getIndex(long micros) {
+		if (micros < SUB_BUCKET_COUNT * 2)
+			return (int) micros;
+
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS, MAX_EXPONENT);
+		int subBucket = (int) Math.min(micros >> exponent, SUB_BUCKET_COUNT * 2 - 1);
+		return SUB_BUCKET_COUNT * exponent + subBucket;
+	}
+
+	/**
+	 * @return highest value of the bucket in microseconds
+	 */
+	private static long getValue(int index) {
+		if (index < SUB_BUCKET_COUNT * 2)
+			return index;
+
+		int exponent = index / SUB_BUCKET_COUNT - 1;
+		long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+		return ((subBucket + 1) << exponent) - 1;
+	}
+}
@@ -0,0 +1,308 @@
+package core.apiCore.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+
+import core.support.configReader.Config;
+import core.support.configReader.LayeredConfig;
+import core.support.logger.TestLog;
+import core.support.objects.ServiceObject;
+import core.support.objects.TestObject;
+import core.uiCore.drivers.AbstractDriver;
+import io.restassured.response.Response;
+
+/**
+ * runs a single service test row as load: fixed concurrency or target
+ * requests per second for a duration, with linear ramp up. each request runs
+ * through the regular request and validation steps. each worker runs with its
+ * own test object layered over the test config: config writes, eg. output
+ * parameters, stay with the worker, and per request logging is turned off
+ */
+public class LoadProfile {
+
+	public static final String API_LOAD_CONCURRENCY = "api.load.concurrency";
+	public static final String API_LOAD_RPS = "api.load.rps";
+	public static final String API_LOAD_DURATION_SECONDS = "api.load.duration.seconds";
+	public static final String API_LOAD_RAMP_UP_SECONDS = "api.load.rampUp.seconds";
+	public static final String API_LOAD_MAX_ERROR_PERCENT = "api.load.maxErrorPercent";
+
+	private static final int DEFAULT_CONCURRENCY = 10;
+
+	// time to wait for requests in flight after the duration
+	private static final int SHUTDOWN_TIMEOUT_SECONDS = 300;
+
+	/**
+	 * returns true if load duration is set
+	 *
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return Config.getIntValue(API_LOAD_DURATION_SECONDS) > 0;
+	}
+
+	/**
+	 * max error rate in percent before the test fails. default 0
+	 *
+	 * @return
+	 */
+	public static double getMaxErrorPercent() {
+		double maxErrorPercent = Config.getDoubleValue(API_LOAD_MAX_ERROR_PERCENT);
+		return maxErrorPercent < 0 ? 0 : maxErrorPercent;
+	}
+
+	/**
+	 * runs the load profile from config
+	 *
+	 * @param serviceObject service row, copied for each request
+	 * @param request       sends and validates a single request. errors are
+	 *                      stored at serviceObject.errorMessages
+	 * @return
+	 */
+	public static LoadResult run(ServiceObject serviceObject, Function<ServiceObject, ServiceObject> request) {
+		int concurrency = Config.getIntValue(API_LOAD_CONCURRENCY);
+		if (concurrency <= 0)
+			concurrency = DEFAULT_CONCURRENCY;
+		double rps = Config.getDoubleValue(API_LOAD_RPS);
+		int durationSeconds = Config.getIntValue(API_LOAD_DURATION_SECONDS);
+		int rampUpSeconds = Math.max(0, Config.getIntValue(API_LOAD_RAMP_UP_SECONDS));
+
+		TestLog.logPass("load profile: concurrency: " + concurrency + (rps > 0 ? " rps: " + rps : "")
+				+ " duration seconds: " + durationSeconds + " ramp up seconds: " + rampUpSeconds);
+
+		LoadRun run = new LoadRun(concurrency, rps, durationSeconds, rampUpSeconds);
+
+		TestObject test = TestObject.getTestInfo();
+		ServiceExecutor.TestContext context = ServiceExecutor.TestContext.capture();
+		AtomicInteger count = new AtomicInteger();
+		ExecutorService workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+			Thread thread = new Thread(runnable, "load-worker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			for (int i = 0; i < concurrency; i++) {
+				int worker = i;
+				workers.execute(() -> {
+					context.withTest(getWorkerTest(test, worker)).apply();
+					run.runWorker(worker, serviceObject, request);
+				});
+			}
+			workers.shutdown();
+			if (!workers.awaitTermination(durationSeconds + SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+				workers.shutdownNow();
+		} catch (InterruptedException e) {
+			workers.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+
+		run.result.elapsedNanos = System.nanoTime() - run.startNanos;
+		return run.result;
+	}
+
+	/**
+	 * gets test object of a worker. config is layered over the test config,
+	 * writes and logs of the worker do not reach the test
+	 *
+	 * @param test
+	 * @param worker
+	 * @return
+	 */
+	private static TestObject getWorkerTest(TestObject test, int worker) {
+		TestObject workerTest = new TestObject().withTestId(test.testId + "-load" + worker)
+				.withTestName(test.testName).withClassName(test.className).withLog(test.log);
+		workerTest.config = new LayeredConfig(test.config);
+
+		// per request logs are turned off
+		workerTest.config.put(TestLog.LOG_SKIP_CONSOLE, "true");
+		workerTest.config.put(TestLog.ENABLE_EXTENT_SUBSTEPS, "false");
+		return workerTest;
+	}
+
+	/**
+	 * shared state of a running load profile
+	 */
+	private static class LoadRun {
+		private final int concurrency;
+		private final double rps;
+		private final long rampUpNanos;
+		private final long startNanos;
+		private final long endNanos;
+
+		// send time of the next request when running at target rps
+		private final AtomicLong nextSlotNanos;
+		private final LoadResult result = new LoadResult();
+
+		LoadRun(int concurrency, double rps, int durationSeconds, int rampUpSeconds) {
+			this.concurrency = concurrency;
+			this.rps = rps;
+			this.rampUpNanos = TimeUnit.SECONDS.toNanos(rampUpSeconds);
+			this.startNanos = System.nanoTime();
+			this.endNanos = startNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+			this.nextSlotNanos = new AtomicLong(startNanos);
+		}
+
+		void runWorker(int worker, ServiceObject serviceObject, Function<ServiceObject, ServiceObject> request) {
+			// fixed concurrency: workers start one after another over the ramp up
+			if (rps <= 0 && !waitUntil(startNanos + rampUpNanos * worker / concurrency))
+				return;
+
+			while (System.nanoTime() < endNanos) {
+				if (rps > 0 && !waitUntil(acquireSlot()))
+					return;
+				sendRequest(serviceObject, request);
+			}
+		}
+
+		private void sendRequest(ServiceObject serviceObject, Function<ServiceObject, ServiceObject> request) {
+			List<String> errors = new ArrayList<String>();
+			long start = System.nanoTime();
+			try {
+				ServiceObject requestObject = request
+						.apply(serviceObject.copy().withErrorMessages(new ArrayList<String>()));
+				errors = requestObject.getErrorMessages();
+				if (requestObject.getResponse() != null)
+					result.lastResponse = requestObject.getResponse();
+			} catch (Throwable e) {
+				errors.add(String.valueOf(e.getMessage()));
+			}
+			result.record(System.nanoTime() - start, errors);
+		}
+
+		/**
+		 * reserves the send time of the next request. rate increases linearly during
+		 * ramp up
+		 *
+		 * @return send time in nanos
+		 */
+		private long acquireSlot() {
+			while (true) {
+				long slot = nextSlotNanos.get();
+				double rate = rps;
+				long elapsed = slot - startNanos;
+				if (elapsed < rampUpNanos)
+					rate = Math.max(1, rps * elapsed / rampUpNanos);
+				long next = slot + (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+				if (nextSlotNanos.compareAndSet(slot, next))
+					return slot;
+			}
+		}
+
+		/**
+		 * @return false if time is past the end of the run
+		 */
+		private boolean waitUntil(long nanos) {
+			if (nanos >= endNanos)
+				return false;
+			long remaining;
+			while ((remaining = nanos - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(remaining);
+				if (Thread.currentThread().isInterrupted())
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * latency, error rate and throughput of a load profile run
+	 */
+	public static class LoadResult {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final AtomicLong errorCount = new AtomicLong();
+		private final Map<String, AtomicLong> errors = new ConcurrentHashMap<String, AtomicLong>();
+		private volatile long elapsedNanos;
+		private volatile Response lastResponse;
+
+		void record(long latencyNanos, List<String> errorMessages) {
+			latency.recordNanos(latencyNanos);
+			if (errorMessages.isEmpty())
+				return;
+
+			errorCount.incrementAndGet();
+			String error = TestLog.setMaxLength(String.valueOf(errorMessages.get(0)), 200);
+			errors.computeIfAbsent(error, key -> new AtomicLong()).incrementAndGet();
+		}
+
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		public long getRequestCount() {
+			return latency.getTotalCount();
+		}
+
+		public long getErrorCount() {
+			return errorCount.get();
+		}
+
+		public double getErrorPercent() {
+			long requests = getRequestCount();
+			return requests == 0 ? 100 : errorCount.get() * 100.0 / requests;
+		}
+
+		/**
+		 * @return completed requests per second
+		 */
+		public double getThroughput() {
+			return elapsedNanos == 0 ? 0 : getRequestCount() / (elapsedNanos / 1e9);
+		}
+
+		/**
+		 * @return response of the last completed request
+		 */
+		public Response getLastResponse() {
+			return lastResponse;
+		}
+
+		/**
+		 * @return error messages with count, separated by new line
+		 */
+		public String getErrorSummary() {
+			StringBuilder summary = new StringBuilder();
+			for (Map.Entry<String, AtomicLong> error : errors.entrySet())
+				summary.append("\n").append(error.getValue().get()).append("x: ").append(error.getKey());
+			return summary.toString();
+		}
+
+		/**
+		 * logs results to console and as table to the report step
+		 */
+		public void report() {
+			String[][] table = new String[][] {
+					{ "requests", String.valueOf(getRequestCount()) },
+					{ "errors", getErrorCount() + " (" + format(getErrorPercent()) + "%)" },
+					{ "throughput (requests/s)", format(getThroughput()) },
+					{ "latency mean (ms)", format(latency.getMeanMillis()) },
+					{ "latency p50 (ms)", format(latency.getPercentileMillis(50)) },
+					{ "latency p90 (ms)", format(latency.getPercentileMillis(90)) },
+					{ "latency p99 (ms)", format(latency.getPercentileMillis(99)) },
+					{ "latency p99.9 (ms)", format(latency.getPercentileMillis(99.9)) },
+					{ "latency max (ms)", format(latency.getMaxMillis()) } };
+
+			for (String[] row : table)
+				TestLog.logPass("load profile " + row[0] + ": " + row[1]);
+			if (!errors.isEmpty())
+				TestLog.logPass("load profile errors: " + getErrorSummary());
+
+			ExtentTest step = AbstractDriver.getStep().get();
+			if (step != null)
+				step.info(MarkupHelper.createTable(table));
+		}
+
+		private static String format(double value) {
+			return String.format("%.2f", value);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package core.apiCore.helpers;
+
+/**
+ * delay between service validation attempts. custom policies are set with
+ * RestApiInterface.setRetryPolicy
+ */
+public interface RetryPolicy {
+
+	/**
+	 * gets wait time after a failed attempt
+	 * 
+	 * @param attempt failed attempt number, starting from 1
+	 * @return wait time in seconds
+	 */
+	double getDelaySeconds(int attempt);
+}
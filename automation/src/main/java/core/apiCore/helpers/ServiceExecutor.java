@@ -0,0 +1,184 @@
+package core.apiCore.helpers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.aventstack.extentreports.ExtentTest;
+
+import core.support.configReader.Config;
+import core.support.objects.TestObject;
+import core.uiCore.drivers.AbstractDriver;
+import core.uiCore.drivers.AbstractDriverTestNG;
+
+/**
+ * asynchronous execution for service calls, eg. request attempts, pagination
+ * prefetch and load profiles. tasks run on a shared bounded pool with the test
+ * context of the submitting thread. delays between attempts are scheduled, no
+ * thread is held while waiting
+ */
+public class ServiceExecutor {
+
+	public static final String SERVICE_ASYNC_ENABLED = "service.async.isEnabled";
+	public static final String SERVICE_ASYNC_THREADS = "service.async.threads";
+
+	private static final int DEFAULT_THREADS = 50;
+
+	private static ExecutorService executor = null;
+	private static ScheduledExecutorService scheduler = null;
+
+	/**
+	 * returns true if request attempts run on the service pool. disabled by
+	 * default
+	 *
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return Config.getBooleanValue(SERVICE_ASYNC_ENABLED);
+	}
+
+	/**
+	 * runs task on the service pool with the current test context
+	 *
+	 * @param task
+	 * @return
+	 */
+	public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+		TestContext context = TestContext.capture();
+		return CompletableFuture.supplyAsync(() -> {
+			TestContext previous = context.apply();
+			try {
+				return task.get();
+			} finally {
+				previous.apply();
+			}
+		}, getExecutor());
+	}
+
+	/**
+	 * completes after the delay without holding a thread
+	 *
+	 * @param seconds
+	 * @return
+	 */
+	public static CompletableFuture<Void> delay(double seconds) {
+		CompletableFuture<Void> future = new CompletableFuture<Void>();
+		getScheduler().schedule(() -> future.complete(null), (long) (seconds * 1000), TimeUnit.MILLISECONDS);
+		return future;
+	}
+
+	/**
+	 * waits for the result. assertion errors and runtime exceptions of the task are
+	 * rethrown as is
+	 *
+	 * @param future
+	 * @return
+	 */
+	public static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * stops the service pool. called at the end of the test run
+	 */
+	public static synchronized void shutdown() {
+		if (executor != null)
+			executor.shutdown();
+		if (scheduler != null)
+			scheduler.shutdownNow();
+		executor = null;
+		scheduler = null;
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			int threads = Config.getIntValue(SERVICE_ASYNC_THREADS);
+			if (threads == -1)
+				threads = DEFAULT_THREADS;
+			AtomicInteger count = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(threads, runnable -> {
+				Thread thread = new Thread(runnable, "service-async-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+	private static synchronized ScheduledExecutorService getScheduler() {
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "service-async-scheduler");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return scheduler;
+	}
+
+	/**
+	 * thread bound test context: test id, test object, test name and report step
+	 */
+	static class TestContext {
+		private final String testId;
+		private final TestObject test;
+		private final String testName;
+		private final String testClassname;
+		private final String driverTestName;
+		private final ExtentTest step;
+
+		private TestContext(String testId, TestObject test, String testName, String testClassname,
+				String driverTestName, ExtentTest step) {
+			this.testId = testId;
+			this.test = test;
+			this.testName = testName;
+			this.testClassname = testClassname;
+			this.driverTestName = driverTestName;
+			this.step = step;
+		}
+
+		static TestContext capture() {
+			return new TestContext(TestObject.currentTestId.get(), TestObject.getCurrentTest(),
+					TestObject.currentTestName.get(), AbstractDriverTestNG.testClassname.get(),
+					AbstractDriverTestNG.testName.get(), AbstractDriver.getStep().get());
+		}
+
+		/**
+		 * context of another test object, without report step
+		 *
+		 * @param test
+		 * @return
+		 */
+		TestContext withTest(TestObject test) {
+			return new TestContext(test.testId, test, testName, testClassname, driverTestName, null);
+		}
+
+		/**
+		 * sets context on the current thread
+		 *
+		 * @return previous context of the thread
+		 */
+		TestContext apply() {
+			TestContext previous = capture();
+			TestObject.setCurrentTest(testId, test);
+			TestObject.currentTestName.set(testName);
+			AbstractDriverTestNG.testClassname.set(testClassname);
+			AbstractDriverTestNG.testName.set(driverTestName);
+			AbstractDriver.getStep().set(step);
+			return previous;
+		}
+	}
+}
@@ -0,0 +1,401 @@
+package core.apiCore.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import core.helpers.Helper;
+import core.support.configReader.Config;
+import core.support.logger.TestLog;
+import core.support.objects.TestObject;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSpecification;
+
+/**
+ * record and replay of rest api calls. record mode stores request and response
+ * pairs per test to the stub folder. replay mode sends requests to a local
+ * http server that serves the recordings, matched by method, path, query and
+ * body hash. recordings of the sending test are preferred, repeated requests
+ * with the same match are served in recorded order per test. bodies are stored
+ * base64 encoded
+ */
+public class ServiceStub {
+
+	public static final String API_STUB_MODE = "api.stub.mode"; // record, replay
+	public static final String API_STUB_PATH = "api.stub.path";
+	public static final String API_STUB_PORT = "api.stub.port";
+
+	public static final String MODE_RECORD = "record";
+	public static final String MODE_REPLAY = "replay";
+
+	private static final String DEFAULT_STUB_PATH = "src/test/resources/stubs/";
+
+	// test id of replayed requests
+	private static final String STUB_TEST_HEADER = "X-Stub-Test";
+	private static final String BASE64_ENCODING = "base64";
+
+	// headers set by the server. bodies are recorded decoded
+	private static final List<String> SKIPPED_HEADERS = Arrays.asList("content-length", "transfer-encoding",
+			"connection", "date", "content-encoding");
+
+	// recording count per test and request, used as replay order
+	private static Map<String, AtomicInteger> recordCount = new ConcurrentHashMap<String, AtomicInteger>();
+
+	// recordings by request key and by test and request key, in recorded order
+	private static Map<String, List<JSONObject>> recordings = new ConcurrentHashMap<String, List<JSONObject>>();
+
+	// replay count per test and request
+	private static Map<String, AtomicInteger> replayCount = new ConcurrentHashMap<String, AtomicInteger>();
+
+	private static HttpServer server = null;
+	private static ExecutorService serverExecutor = null;
+
+	public static boolean isRecord() {
+		return Config.getValue(API_STUB_MODE).equalsIgnoreCase(MODE_RECORD);
+	}
+
+	public static boolean isReplay() {
+		return Config.getValue(API_STUB_MODE).equalsIgnoreCase(MODE_REPLAY);
+	}
+
+	/**
+	 * records request and response pairs of the request
+	 *
+	 * @param request
+	 * @return
+	 */
+	public static RequestSpecification record(RequestSpecification request) {
+		return request.filter(new RecordFilter());
+	}
+
+	/**
+	 * sends the request to the local stub server. base path and path are kept,
+	 * the test id is sent as header
+	 *
+	 * @param request
+	 * @return
+	 */
+	public static RequestSpecification replay(RequestSpecification request) {
+		request.baseUri("http://localhost");
+		request.port(getServerPort());
+		request.header(STUB_TEST_HEADER, getTestName());
+		return request;
+	}
+
+	/**
+	 * stops the stub server. called at the end of the test run
+	 */
+	public static synchronized void shutdown() {
+		if (server != null) {
+			server.stop(0);
+			serverExecutor.shutdownNow();
+		}
+		server = null;
+		serverExecutor = null;
+		recordings.clear();
+		replayCount.clear();
+		recordCount.clear();
+	}
+
+	/**
+	 * starts the stub server with recordings from the stub folder
+	 *
+	 * @return server port
+	 */
+	private static synchronized int getServerPort() {
+		if (server != null)
+			return server.getAddress().getPort();
+
+		loadRecordings();
+
+		int port = Math.max(0, Config.getIntValue(API_STUB_PORT));
+		try {
+			server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		} catch (IOException e) {
+			e.printStackTrace();
+			Helper.assertFalse("stub server failed to start on port: " + port + " error: " + e.getMessage());
+		}
+		AtomicInteger count = new AtomicInteger();
+		serverExecutor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "service-stub-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(serverExecutor);
+		server.createContext("/", ServiceStub::serveRecording);
+		server.start();
+
+		TestLog.ConsoleLog("stub server started on port: " + server.getAddress().getPort() + " with "
+				+ recordings.size() + " recorded requests");
+		return server.getAddress().getPort();
+	}
+
+	private static void serveRecording(HttpExchange exchange) throws IOException {
+		try {
+			URI uri = exchange.getRequestURI();
+			byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+			String key = getKey(exchange.getRequestMethod(), uri.getRawPath(), uri.getRawQuery(), body,
+					exchange.getRequestHeaders().getFirst("Content-Type"));
+
+			JSONObject recording = getRecording(exchange.getRequestHeaders().getFirst(STUB_TEST_HEADER), key);
+			if (recording == null) {
+				byte[] error = ("no recording found for: " + key).getBytes(StandardCharsets.UTF_8);
+				exchange.sendResponseHeaders(404, error.length);
+				exchange.getResponseBody().write(error);
+				return;
+			}
+
+			JSONObject headers = recording.getJSONObject("headers");
+			for (String name : headers.keySet())
+				exchange.getResponseHeaders().add(name, headers.getString(name));
+
+			byte[] responseBody = getBody(recording, "responseBody");
+			exchange.sendResponseHeaders(recording.getInt("statusCode"),
+					responseBody.length == 0 ? -1 : responseBody.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(responseBody);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * gets the next recording of the test for the request, else of any test. the
+	 * last recording is repeated
+	 */
+	private static JSONObject getRecording(String test, String key) {
+		String testKey = StringUtils.defaultString(test) + "#" + key;
+		List<JSONObject> matches = recordings.get(testKey);
+		if (matches == null)
+			matches = recordings.get(key);
+		if (matches == null)
+			return null;
+		int index = replayCount.computeIfAbsent(testKey, value -> new AtomicInteger()).getAndIncrement();
+		return matches.get(Math.min(index, matches.size() - 1));
+	}
+
+	/**
+	 * gets recorded body. bodies recorded as text are read as utf-8
+	 */
+	private static byte[] getBody(JSONObject recording, String name) {
+		String body = recording.optString(name);
+		if (BASE64_ENCODING.equals(recording.optString("encoding")))
+			return Base64.getDecoder().decode(body);
+		return body.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * loads all recordings from the stub folder, ordered by test and record order
+	 */
+	private static void loadRecordings() {
+		Path root = Paths.get(getStubPath());
+		if (!root.toFile().exists()) {
+			TestLog.ConsoleLog("stub folder not found: " + root);
+			return;
+		}
+
+		try (Stream<Path> files = Files.walk(root)) {
+			List<JSONObject> loaded = new ArrayList<JSONObject>();
+			for (Path file : files.filter(path -> path.toString().endsWith(".json")).collect(Collectors.toList()))
+				loaded.add(new JSONObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)));
+
+			loaded.sort((first, second) -> {
+				int compare = first.getString("test").compareTo(second.getString("test"));
+				return compare != 0 ? compare : Integer.compare(first.getInt("order"), second.getInt("order"));
+			});
+			for (JSONObject recording : loaded) {
+				String key = recording.getString("key");
+				recordings.computeIfAbsent(key, value -> new ArrayList<JSONObject>()).add(recording);
+				recordings.computeIfAbsent(recording.getString("test") + "#" + key, value -> new ArrayList<JSONObject>())
+						.add(recording);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * writes the request and response pair to the test folder
+	 */
+	private static void saveRecording(FilterableRequestSpecification requestSpec, Response response) {
+		URI uri = URI.create(requestSpec.getURI());
+		byte[] body = getRequestBody(requestSpec);
+		String contentType = requestSpec.getFormParams().isEmpty() ? requestSpec.getContentType()
+				: "application/x-www-form-urlencoded";
+		String key = getKey(requestSpec.getMethod(), uri.getRawPath(), uri.getRawQuery(), body, contentType);
+
+		String test = getTestName();
+		String keyHash = getHash(key).substring(0, 16);
+		int order = recordCount.computeIfAbsent(test + "#" + keyHash, value -> new AtomicInteger()).incrementAndGet();
+
+		JSONObject headers = new JSONObject();
+		for (Header header : response.getHeaders())
+			if (!SKIPPED_HEADERS.contains(header.getName().toLowerCase()))
+				headers.put(header.getName(), header.getValue());
+
+		JSONObject recording = new JSONObject();
+		recording.put("key", key);
+		recording.put("test", test);
+		recording.put("order", order);
+		recording.put("method", requestSpec.getMethod());
+		recording.put("uri", requestSpec.getURI());
+		recording.put("encoding", BASE64_ENCODING);
+		recording.put("requestBody", Base64.getEncoder().encodeToString(body));
+		recording.put("statusCode", response.getStatusCode());
+		recording.put("headers", headers);
+		recording.put("responseBody", Base64.getEncoder().encodeToString(response.getBody().asByteArray()));
+
+		File file = new File(getStubPath() + test + File.separator + keyHash + "_" + order + ".json");
+		try {
+			file.getParentFile().mkdirs();
+			Files.write(file.toPath(), recording.toString(2).getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * request body as sent. text bodies are encoded with the charset of the
+	 * content type, utf-8 if not set. form parameters are url encoded
+	 */
+	private static byte[] getRequestBody(FilterableRequestSpecification requestSpec) {
+		Object body = requestSpec.getBody();
+		if (body instanceof byte[])
+			return (byte[]) body;
+		if (body != null)
+			return body.toString().getBytes(getCharset(requestSpec.getContentType()));
+
+		List<String> parameters = new ArrayList<String>();
+		for (Map.Entry<String, String> parameter : requestSpec.getFormParams().entrySet())
+			parameters.add(encode(parameter.getKey()) + "=" + encode(String.valueOf(parameter.getValue())));
+		return StringUtils.join(parameters, "&").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static Charset getCharset(String contentType) {
+		String charset = StringUtils.substringAfter(StringUtils.defaultString(contentType).toLowerCase(), "charset=");
+		charset = StringUtils.substringBefore(charset, ";").trim();
+		try {
+			return charset.isEmpty() ? StandardCharsets.UTF_8 : Charset.forName(charset);
+		} catch (Exception e) {
+			return StandardCharsets.UTF_8;
+		}
+	}
+
+	/**
+	 * request match key: method, path, sorted query parameters and body hash. form
+	 * bodies are compared by sorted parameters
+	 */
+	private static String getKey(String method, String path, String query, byte[] body, String contentType) {
+		if (contentType != null && contentType.contains("x-www-form-urlencoded"))
+			body = normalizeParameters(new String(body, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+		return method.toUpperCase() + " " + StringUtils.defaultString(path) + "?" + normalizeParameters(query) + " "
+				+ getHash(body);
+	}
+
+	/**
+	 * test id as used in stub file paths and replay headers
+	 */
+	private static String getTestName() {
+		return TestObject.getTestId().replaceAll("[^a-zA-Z0-9_.-]", "_");
+	}
+
+	private static String normalizeParameters(String parameters) {
+		if (StringUtils.isEmpty(parameters))
+			return StringUtils.EMPTY;
+		List<String> values = new ArrayList<String>();
+		for (String parameter : parameters.split("&"))
+			values.add(decode(parameter));
+		Collections.sort(values);
+		return StringUtils.join(values, "&");
+	}
+
+	private static String getStubPath() {
+		String path = Config.getValue(API_STUB_PATH);
+		if (path.isEmpty())
+			path = DEFAULT_STUB_PATH;
+		path = Helper.getFullPath(path);
+		return path.endsWith(File.separator) || path.endsWith("/") ? path : path + File.separator;
+	}
+
+	private static String getHash(String value) {
+		return getHash(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String getHash(byte[] value) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(value);
+			StringBuilder hash = new StringBuilder();
+			for (byte b : digest)
+				hash.append(String.format("%02x", b));
+			return hash.toString();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String encode(String value) {
+		try {
+			return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+		} catch (UnsupportedEncodingException e) {
+			return value;
+		}
+	}
+
+	private static String decode(String value) {
+		try {
+			return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+		} catch (Exception e) {
+			return value;
+		}
+	}
+
+	/**
+	 * stores request and response pair after the response is received
+	 */
+	private static class RecordFilter implements Filter {
+
+		@Override
+		public Response filter(FilterableRequestSpecification requestSpec,
+				FilterableResponseSpecification responseSpec, FilterContext ctx) {
+			Response response = ctx.next(requestSpec, responseSpec);
+			saveRecording(requestSpec, response);
+			return response;
+		}
+	}
+}
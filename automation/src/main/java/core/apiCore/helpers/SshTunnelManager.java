@@ -0,0 +1,212 @@
+package core.apiCore.helpers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+import core.support.logger.TestLog;
+
+/**
+ * process wide ssh tunnel manager. one ssh session is kept per user@host:port
+ * and all port forwards for that bastion are multiplexed over it. sessions are
+ * kept alive and checked every keep alive interval by the tunnel monitor.
+ * dropped sessions are re-established, including their forwards, by the
+ * monitor or on the next use, whichever comes first
+ */
+public class SshTunnelManager {
+
+	private static final int DEFAULT_KEEP_ALIVE_SECONDS = 30;
+	private static final int KEEP_ALIVE_MAX_COUNT = 3;
+
+	// key: user@host:port
+	private static Map<String, SshTunnel> tunnels = new ConcurrentHashMap<String, SshTunnel>();
+
+	private static ScheduledExecutorService monitor = null;
+
+	/**
+	 * gets connected session for the ssh host. connects on first use or if the
+	 * existing session has been dropped
+	 *
+	 * @param user
+	 * @param password
+	 * @param host
+	 * @param port             ssh port, -1 for default
+	 * @param keepAliveSeconds keep alive interval, -1 for default
+	 * @return
+	 * @throws JSchException
+	 */
+	public static Session getSession(String user, String password, String host, int port, int keepAliveSeconds)
+			throws JSchException {
+		SshTunnel tunnel = getTunnel(user, password, host, port, keepAliveSeconds);
+		return tunnel.getSession();
+	}
+
+	/**
+	 * forwards local port to rhost:rport through the shared ssh session. if the
+	 * target is already forwarded on a live session, the existing local port is
+	 * returned without a new handshake
+	 *
+	 * @param user
+	 * @param password
+	 * @param host
+	 * @param port
+	 * @param keepAliveSeconds
+	 * @param lport            local port, 0 for any free port
+	 * @param rhost
+	 * @param rport
+	 * @return assigned local port
+	 * @throws JSchException
+	 */
+	public static int forwardPort(String user, String password, String host, int port, int keepAliveSeconds,
+			int lport, String rhost, int rport) throws JSchException {
+		SshTunnel tunnel = getTunnel(user, password, host, port, keepAliveSeconds);
+		return tunnel.forward(lport, rhost, rport);
+	}
+
+	/**
+	 * disconnects all ssh sessions. called at the end of the test run
+	 */
+	public static void disconnectAll() {
+		for (SshTunnel tunnel : tunnels.values())
+			tunnel.close();
+		tunnels.clear();
+	}
+
+	private static SshTunnel getTunnel(String user, String password, String host, int port, int keepAliveSeconds) {
+		String key = user + "@" + host + ":" + port;
+		return tunnels.computeIfAbsent(key, k -> {
+			SshTunnel tunnel = new SshTunnel(user, password, host, port, keepAliveSeconds);
+			tunnel.monitorTask = getMonitor().scheduleWithFixedDelay(tunnel::checkSession,
+					tunnel.keepAliveSeconds, tunnel.keepAliveSeconds, TimeUnit.SECONDS);
+			return tunnel;
+		});
+	}
+
+	private static synchronized ScheduledExecutorService getMonitor() {
+		if (monitor == null) {
+			monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "ssh-tunnel-monitor");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return monitor;
+	}
+
+	/**
+	 * ssh session with its port forwards. forwards are recorded so they can be
+	 * restored on the same local ports when the session is re-established
+	 */
+	private static class SshTunnel {
+		private final String user;
+		private final String password;
+		private final String host;
+		private final int port;
+		private final int keepAliveSeconds;
+		private Session session = null;
+		private ScheduledFuture<?> monitorTask = null;
+
+		// key: rhost:rport, value: assigned local port
+		private final Map<String, Integer> forwards = new ConcurrentHashMap<String, Integer>();
+
+		SshTunnel(String user, String password, String host, int port, int keepAliveSeconds) {
+			this.user = user;
+			this.password = password;
+			this.host = host;
+			this.port = port;
+			this.keepAliveSeconds = keepAliveSeconds > 0 ? keepAliveSeconds : DEFAULT_KEEP_ALIVE_SECONDS;
+		}
+
+		synchronized Session getSession() throws JSchException {
+			if (session != null && session.isConnected() && isAlive(session))
+				return session;
+
+			boolean isReconnect = session != null;
+			disconnect();
+
+			JSch jsch = new JSch();
+			if (port != -1)
+				session = jsch.getSession(user, host, port);
+			else
+				session = jsch.getSession(user, host);
+
+			session.setPassword(password);
+			session.setConfig("StrictHostKeyChecking", "no");
+			session.setServerAliveInterval(keepAliveSeconds * 1000);
+			session.setServerAliveCountMax(KEEP_ALIVE_MAX_COUNT);
+
+			TestLog.ConsoleLog((isReconnect ? "Re-establishing" : "Establishing") + " ssh connection: " + host);
+			session.connect();
+
+			// restore existing forwards on the same local ports
+			for (Map.Entry<String, Integer> forward : forwards.entrySet()) {
+				String[] target = forward.getKey().split(":");
+				session.setPortForwardingL(forward.getValue(), target[0], Integer.valueOf(target[1]));
+				TestLog.ConsoleLog("Port forwarding restored: assigned port: " + forward.getValue() + " -> "
+						+ forward.getKey());
+			}
+			return session;
+		}
+
+		synchronized int forward(int lport, String rhost, int rport) throws JSchException {
+			Session current = getSession();
+			String target = rhost + ":" + rport;
+
+			Integer assignedPort = forwards.get(target);
+			if (assignedPort != null)
+				return assignedPort;
+
+			assignedPort = current.setPortForwardingL(lport, rhost, rport);
+			forwards.put(target, assignedPort);
+			TestLog.ConsoleLog("Port forwarding: assigned port: " + assignedPort + " -> " + target);
+			return assignedPort;
+		}
+
+		/**
+		 * re-establishes the session with its forwards if dropped. run by the tunnel
+		 * monitor
+		 */
+		void checkSession() {
+			try {
+				getSession();
+			} catch (Exception e) {
+				TestLog.ConsoleLogWarn("ssh connection check failed: " + host + " error: " + e.getMessage());
+			}
+		}
+
+		/**
+		 * health check. keep alive write fails if the connection is broken
+		 */
+		private boolean isAlive(Session session) {
+			try {
+				session.sendKeepAliveMsg();
+				return true;
+			} catch (Exception e) {
+				return false;
+			}
+		}
+
+		synchronized void close() {
+			if (monitorTask != null)
+				monitorTask.cancel(false);
+			disconnect();
+		}
+
+		synchronized void disconnect() {
+			if (session == null)
+				return;
+			try {
+				session.disconnect();
+			} catch (Exception e) {
+				e.getMessage();
+			}
+		}
+	}
+}
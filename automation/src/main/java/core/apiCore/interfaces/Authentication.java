@@ -6,18 +6,23 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang.StringUtils;
 
+import core.apiCore.helpers.AuthTokenCache;
+import core.apiCore.helpers.AuthTokenCache.Token;
 import core.apiCore.helpers.DataHelper;
+import core.apiCore.helpers.ServiceStub;
 import core.helpers.Helper;
 import core.support.configReader.Config;
 import core.support.logger.TestLog;
 import core.support.objects.KeyValue;
 import core.support.objects.ServiceObject;
-import io.restassured.RestAssured;
+import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 
 public class Authentication {
@@ -44,27 +49,23 @@ public class Authentication {
 		if (Config.getBooleanValue(AUTHENTICATION_DISABLE))
 			return;
 
-		// set timeout from api config
-		RestApiInterface.setTimeout();
-
-		// set proxy from config file
-		RestApiInterface.setProxy();
-
 		// replace parameters for request body, including template file (json, xml, or
 		// other)
 		serviceObject.withRequestBody(DataHelper.getRequestBodyIncludingTemplate(serviceObject));
 
-		// set base uri
-		setURI(serviceObject);
+		// set base uri, timeout and proxy
+		RequestSpecification request = setURI(serviceObject);
 
 		// send request And receive a response
-		evaluateRequest(serviceObject);
+		evaluateRequest(serviceObject, request);
 	}
 
 	/**
-	 * sets base uri for api call
+	 * sets base uri, timeout and proxy for api call on an isolated request
+	 * 
+	 * @return
 	 */
-	public static void setURI(ServiceObject serviceObject) {
+	public static RequestSpecification setURI(ServiceObject serviceObject) {
 		String url = StringUtils.EMPTY;
 
 		// replace place holder values for uri
@@ -85,14 +86,39 @@ public class Authentication {
 		URL aURL = Helper.convertToUrl(url);
 		TestLog.logPass("request URL: " + aURL.toString());
 
-		RestAssured.baseURI = aURL.getProtocol() + "://" + aURL.getHost();
-		RestAssured.port = aURL.getPort();
-		RestAssured.basePath = aURL.getPath();
+		RequestSpecification request = newRequest(aURL);
+
+		// set proxy from config file. replayed requests are sent to the local stub
+		// server
+		if (ServiceStub.isReplay())
+			request = ServiceStub.replay(request);
+		else
+			request = RestApiInterface.setProxy(request, aURL);
+
+		// store request and response pairs for replay
+		if (ServiceStub.isRecord())
+			request = ServiceStub.record(request);
+
+		return request;
 	}
 
-	private static RequestSpecification evaluateRequest(ServiceObject serviceObject) {
-		// set content type
-		RequestSpecification request = null;
+	/**
+	 * creates request for url with timeout from api config
+	 * 
+	 * @param url
+	 * @return
+	 */
+	private static RequestSpecification newRequest(URL url) {
+		RequestSpecification request = given();
+		request.baseUri(url.getProtocol() + "://" + url.getHost());
+		request.port(url.getPort());
+		request.basePath(url.getPath());
+
+		// set timeout from api config
+		return RestApiInterface.setTimeout(request);
+	}
+
+	private static RequestSpecification evaluateRequest(ServiceObject serviceObject, RequestSpecification request) {
 
 		// evaluate options
 		evaluateOption(serviceObject);
@@ -131,15 +157,49 @@ public class Authentication {
 		case "OAUTH2":
 			username = parameterMap.get("username");
 			password = parameterMap.get("password");
-			String clientId = parameterMap.get("cliendId");
+			String clientId = parameterMap.containsKey("clientId") ? parameterMap.get("clientId")
+					: parameterMap.get("cliendId");
 			String clientSecret = parameterMap.get("clientSecret");
 			String grantType = parameterMap.get("grantType");
 			String scope = parameterMap.get("scope");
 			String redirectUri = parameterMap.get("redirectUri");
 
-			request = given().auth().preemptive().basic(clientId, clientSecret).formParam("grant_type", grantType)
-					.formParam("username", username).formParam("password", password)
-					.formParam("redirect_uri", redirectUri).formParam("scope", scope);
+			Map<String, String> formParams = new LinkedHashMap<String, String>();
+			setFormParam(formParams, "grant_type", grantType);
+			setFormParam(formParams, "username", username);
+			setFormParam(formParams, "password", password);
+			setFormParam(formParams, "redirect_uri", redirectUri);
+			setFormParam(formParams, "scope", scope);
+
+			request = request.auth().preemptive().basic(clientId, clientSecret);
+			if (!formParams.isEmpty())
+				request = request.formParams(formParams);
+			serviceObject.withRequest(request);
+
+			// background refresh sends a new request built from api config, without the
+			// record filter of the test request. config is read now, the refresh runs
+			// without test context. replayed tokens are not refreshed
+			URL tokenUrl = Helper.convertToUrl(serviceObject.getUriPath());
+			Supplier<Response> refreshRequest = null;
+			if (!ServiceStub.isReplay()) {
+				RequestSpecification refresh = RestApiInterface.setProxy(newRequest(tokenUrl), tokenUrl);
+				refresh = refresh.auth().preemptive().basic(clientId, clientSecret);
+				if (!formParams.isEmpty())
+					refresh = refresh.formParams(formParams);
+				RequestSpecification refreshSpec = refresh;
+				refreshRequest = () -> given().spec(refreshSpec).when().post();
+			}
+
+			// token is shared across tests with the same endpoint, credentials and scope
+			String tokenKey = AuthTokenCache.getKey(serviceObject.getUriPath(), clientId, clientSecret, username,
+					password, grantType, scope);
+			RequestSpecification tokenRequest = request;
+			try {
+				Token token = AuthTokenCache.getToken(tokenKey, () -> tokenRequest.when().post(), refreshRequest);
+				saveOutboundParameter(serviceObject, token.getAuthorization());
+			} catch (RuntimeException e) {
+				Helper.assertFalse("token request failed: " + e.getMessage());
+			}
 			break;
 		default:
 			Helper.assertFalse("Correct authentication type not set. selected: <" + serviceObject.getMethod()
@@ -149,6 +209,12 @@ public class Authentication {
 		return request;
 	}
 
+	private static void setFormParam(Map<String, String> formParams, String key, String value) {
+		if (value == null || value.isEmpty())
+			return;
+		formParams.put(key, value);
+	}
+
 	private static Map<String, String> getParameters(ServiceObject serviceObject) {
 
 		Map<String, String> parameterMap = new HashMap<String, String>();
@@ -233,7 +299,10 @@ public class Authentication {
 		key = key.replace("$", "").replace("<", "").replace(">", "").trim();
 		Config.putValue(key, authorization, false);
 		
-		ArrayList<String> request = (ArrayList<String>) authorization;
-		TestLog.logPass("output parameter: " + key + " value: " + Arrays.toString(request.toArray()));
+		if (authorization instanceof List) {
+			ArrayList<String> request = (ArrayList<String>) authorization;
+			TestLog.logPass("output parameter: " + key + " value: " + Arrays.toString(request.toArray()));
+		} else
+			TestLog.logPass("output parameter: " + key + " value: *****");
 	}
 }
\ No newline at end of file
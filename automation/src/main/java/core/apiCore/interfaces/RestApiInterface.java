@@ -3,26 +3,40 @@ package core.apiCore.interfaces;
 import static io.restassured.RestAssured.given;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 
 import core.apiCore.ServiceManager;
+import core.apiCore.helpers.BackoffRetryPolicy;
 import core.apiCore.helpers.DataHelper;
 import core.apiCore.helpers.DataHelper.JSON_COMMAND;
+import core.apiCore.helpers.HttpConnectionPool;
 import core.apiCore.helpers.JsonHelper;
+import core.apiCore.helpers.LoadProfile;
+import core.apiCore.helpers.RetryPolicy;
+import core.apiCore.helpers.ServiceExecutor;
+import core.apiCore.helpers.ServiceStub;
 import core.helpers.Helper;
 import core.helpers.StopWatchHelper;
 import core.helpers.UtilityHelper;
 import core.support.configReader.Config;
+import core.support.logger.ExtentManager;
 import core.support.logger.TestLog;
 import core.support.objects.KeyValue;
 import core.support.objects.ServiceObject;
@@ -32,7 +46,9 @@ import io.restassured.config.HttpClientConfig;
 import io.restassured.config.RestAssuredConfig;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
+import io.restassured.specification.ProxySpecification;
 import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.SpecificationQuerier;
 
 public class RestApiInterface {
 
@@ -45,11 +61,29 @@ public class RestApiInterface {
 	private static final String OPTION_PAGINATION_MAX_PAGES = "PAGINATION_MAX_PAGES";
 	private static final String OPTION_PAGINATION_FROM = "PAGINATION_FROM";
 	private static final String OPTION_PAGINATION_INCREMENET = "PAGINATION_INCREMENT";
+	private static final String OPTION_PAGINATION_PREFETCH = "PAGINATION_PREFETCH";
+
+	private static final String OPTION_LOAD_CONCURRENCY = "LOAD_CONCURRENCY";
+	private static final String OPTION_LOAD_RPS = "LOAD_RPS";
+	private static final String OPTION_LOAD_DURATION_SECONDS = "LOAD_DURATION_SECONDS";
+	private static final String OPTION_LOAD_RAMP_UP_SECONDS = "LOAD_RAMP_UP_SECONDS";
+	private static final String OPTION_LOAD_MAX_ERROR_PERCENT = "LOAD_MAX_ERROR_PERCENT";
 
 	public static final String API_PAGINATION_STOP_CRITERIA = "api.pagination.stop.criteria";
 	public static final String API_PAGINATION_MAX_PAGES = "api.pagination.max.pages";
 	public static final String API_PAGINATION_PAGES_FROM = "api.pagination.pages.from";
 	public static final String API_PAGINATION_INCREMENT = "api.pagination.incremenet";
+	// pages requested ahead of validation. GET and HEAD only: up to prefetch - 1
+	// pages past the last validated page are requested, their responses are
+	// discarded
+	public static final String API_PAGINATION_PREFETCH = "api.pagination.prefetch";
+
+	// response bodies above threshold in bytes are written to the report media folder, log shows a
+	// preview. json path validations of spooled bodies read the file, other validations decode the body
+	public static final String API_RESPONSE_SPOOL_THRESHOLD_BYTES = "api.response.spool.threshold.bytes";
+	public static final String API_RESPONSE_SPOOL_PREVIEW_LENGTH = "api.response.spool.preview.length";
+	private static final int DEFAULT_SPOOL_THRESHOLD_BYTES = 1024 * 1024;
+	private static final int DEFAULT_SPOOL_PREVIEW_LENGTH = 2000;
 
 	public static final String API_PAGINATION_COUNTER = "PAGINATION";
 
@@ -60,6 +94,9 @@ public class RestApiInterface {
 
 	public static final String API_BASE_URL = "api.uriPath";
 
+	// custom retry policy for validation attempts. null: backoff policy from config
+	private static volatile RetryPolicy retryPolicy = null;
+
 	/**
 	 * interface for restful API calls
 	 * 
@@ -71,12 +108,6 @@ public class RestApiInterface {
 		if (serviceObject == null)
 			Helper.assertFalse("service object is null");
 
-		// set timeout from api config
-		setTimeout();
-
-		// set proxy from api config
-		setProxy();
-
 		// send request and evaluate response
 		Response response = evaluate(serviceObject);
 
@@ -106,6 +137,10 @@ public class RestApiInterface {
 
 		// set options
 		evaluateOption(serviceObject);
+
+		// run row as load if load duration is set
+		if (LoadProfile.isEnabled())
+			return evaluateLoadProfile(serviceObject);
 		
 		int getRetryCount = Config.getIntValue(ServiceManager.SERVICE_RETRY_COUNT);
 		int getRetryAfterSecond = Config.getIntValue(ServiceManager.SERVICE_RETRY_AFTER_SERCONDS);
@@ -141,6 +176,27 @@ public class RestApiInterface {
 		return serviceObject.getResponse();
 	}
 
+	/**
+	 * runs the request as load profile: LOAD_CONCURRENCY or LOAD_RPS for
+	 * LOAD_DURATION_SECONDS, ramping up over LOAD_RAMP_UP_SECONDS. each request is
+	 * validated. output parameters of load requests are not saved to the test.
+	 * fails if the error rate exceeds LOAD_MAX_ERROR_PERCENT
+	 * 
+	 * @param serviceObject
+	 * @return response of the last completed request
+	 */
+	public static Response evaluateLoadProfile(ServiceObject serviceObject) {
+		LoadProfile.LoadResult result = LoadProfile.run(serviceObject, request -> evaluateAttempt(request, 1));
+		result.report();
+
+		double maxErrorPercent = LoadProfile.getMaxErrorPercent();
+		if (result.getErrorPercent() > maxErrorPercent)
+			Helper.assertFalse("load profile error rate: " + String.format("%.2f", result.getErrorPercent())
+					+ "% exceeds max: " + maxErrorPercent + "%. errors: " + result.getErrorSummary());
+
+		return result.getLastResponse();
+	}
+
 	/**
 	 * evaluate pagination format: http://url?page=<@PAGINATION_FROM_1> counter will
 	 * start from page 1 will iterate through the pages until either: - the expected
@@ -207,6 +263,13 @@ public class RestApiInterface {
 		String uri = serviceObject.getUriPath();
 		boolean isCriteriaSuccess = false;
 
+		// request pages ahead concurrently. not used with per page validation timeout
+		// or with requests that are not safe to send again, eg. POST
+		int prefetch = Config.getIntValue(API_PAGINATION_PREFETCH);
+		boolean isValidationTimeout = Config.getBooleanValue(ServiceManager.SERVICE_TIMEOUT_VALIDATION_ENABLED);
+		if (prefetch > 1 && !isValidationTimeout && isPrefetchMethod(serviceObject.getMethod()))
+			return evaluateRequestAndValidatePaginationPrefetch(serviceObject, prefetch);
+
 		for (int index = startingPage; index <= maxPages; index += incrementBy) {
 
 			TestLog.logPass("Validating page: " + index);
@@ -239,6 +302,133 @@ public class RestApiInterface {
 		return isCriteriaSuccess;
 	}
 
+	/**
+	 * validates pages in order while up to prefetch pages are requested ahead on
+	 * the service pool. requests are rendered in order on the calling thread, so
+	 * each page uses its own page number. stops at the first empty page or
+	 * validation match. pages requested beyond it are still sent to the server,
+	 * requests in flight are not aborted, their responses are discarded
+	 * 
+	 * @param serviceObject
+	 * @param prefetch      number of pages in flight
+	 * @return
+	 */
+	private static boolean evaluateRequestAndValidatePaginationPrefetch(ServiceObject serviceObject, int prefetch) {
+		String criteria = Config.getValue(API_PAGINATION_STOP_CRITERIA);
+		int maxPages = Config.getIntValue(API_PAGINATION_MAX_PAGES);
+		int startingPage = Helper.getIntFromString(Config.getValue(API_PAGINATION_PAGES_FROM));
+		int incrementBy = Helper.getIntFromString(Config.getValue(API_PAGINATION_INCREMENT));
+
+		String uri = serviceObject.getUriPath();
+		boolean isCriteriaSuccess = false;
+		int nextPage = startingPage;
+		Deque<PageRequest> pages = new ArrayDeque<PageRequest>();
+
+		try {
+			while (true) {
+				// keep prefetch pages in flight
+				while (pages.size() < prefetch && nextPage <= maxPages) {
+					pages.add(sendPageRequest(serviceObject, uri, nextPage));
+					nextPage += incrementBy;
+				}
+
+				PageRequest page = pages.poll();
+				if (page == null)
+					break;
+
+				TestLog.logPass("Validating page: " + page.index);
+				Config.putValue(API_PAGINATION_COUNTER, page.index, false);
+
+				// receive and validate the response in page order
+				Response response = ServiceExecutor.join(page.response);
+				ServiceObject pageObject = receiveResponse(page.serviceObject, response);
+				pageObject.withErrorMessages(validateResponse(pageObject));
+
+				// latest page is tracked on the service object
+				serviceObject.withUriPath(pageObject.getUriPath()).withRequestBody(pageObject.getRequestBody())
+						.withRequest(pageObject.getRequest()).withResponse(pageObject.getResponse())
+						.withErrorMessages(pageObject.getErrorMessages());
+
+				// error indicates that there are no more results on the page
+				List<String> criteriaErrors = validatePaginationStopCriteria(serviceObject, criteria);
+				if (!criteriaErrors.isEmpty()) {
+					TestLog.logPass("no more results returned at page: " + page.index + " with criteria: " + criteria);
+					break;
+				}
+
+				// if errors (requirements not met), continue with next page
+				if (!serviceObject.getErrorMessages().isEmpty()) {
+					TestLog.logPass(Arrays.toString(serviceObject.getErrorMessages().toArray()));
+				} else {
+					isCriteriaSuccess = true;
+					break;
+				}
+			}
+		} finally {
+			// discard pages requested beyond the last validated page. pages not yet
+			// started are skipped, requests already sent complete on the pool
+			for (PageRequest page : pages)
+				page.response.cancel(false);
+			serviceObject.withUriPath(uri);
+		}
+
+		return isCriteriaSuccess;
+	}
+
+	/**
+	 * pages are only requested ahead for read requests, extra pages must not
+	 * change server state
+	 * 
+	 * @param method
+	 * @return
+	 */
+	private static boolean isPrefetchMethod(String method) {
+		return "GET".equals(method) || "HEAD".equals(method);
+	}
+
+	/**
+	 * renders the request for the page and sends it on the service pool
+	 * 
+	 * @param serviceObject
+	 * @param uri           uri with pagination place holder
+	 * @param index         page number
+	 * @return
+	 */
+	private static PageRequest sendPageRequest(ServiceObject serviceObject, String uri, int index) {
+		ServiceObject pageObject = serviceObject.copy().withUriPath(uri)
+				.withErrorMessages(new ArrayList<String>());
+		Config.putValue(API_PAGINATION_COUNTER, index, false);
+
+		RequestSpecification request = setURI(pageObject);
+		pageObject.withRequestBody(DataHelper.getRequestBodyIncludingTemplate(pageObject));
+		RequestSpecification pageRequest = prepareRequest(pageObject, request);
+
+		CompletableFuture<Response> response = ServiceExecutor.supplyAsync(() -> {
+			try {
+				return sendRequest(pageObject, pageRequest);
+			} catch (Exception e) {
+				pageObject.getErrorMessages().add(e.getMessage());
+				return null;
+			}
+		});
+		return new PageRequest(index, pageObject, response);
+	}
+
+	/**
+	 * page request in flight
+	 */
+	private static class PageRequest {
+		final int index;
+		final ServiceObject serviceObject;
+		final CompletableFuture<Response> response;
+
+		PageRequest(int index, ServiceObject serviceObject, CompletableFuture<Response> response) {
+			this.index = index;
+			this.serviceObject = serviceObject;
+			this.response = response;
+		}
+	}
+
 	/**
 	 * stoppage criteria for api pagination will iterate through pages in api call,
 	 * untill the criteria node size reaches 0 - this indicates that there are no
@@ -269,24 +459,86 @@ public class RestApiInterface {
 	 * @return
 	 */
 	public static ServiceObject evaluateRequestAndReceiveResponse(ServiceObject serviceObject) {
-		StopWatchHelper watch = StopWatchHelper.start();
-		long passedTimeInSeconds = 0;
 
-		int maxRetrySeconds = -1;
+		// attempts run on the bounded service pool, waits between attempts are
+		// scheduled and do not hold a thread
+		if (ServiceExecutor.isEnabled())
+			return ServiceExecutor.join(evaluateRequestAndReceiveResponseAsync(serviceObject));
+
+		StopWatchHelper watch = StopWatchHelper.start();
 		int currentRunCount = 0;
+		double waitTimeSeconds = -1;
 
 		do {
 			currentRunCount++;
-			
-			// reset error list
-			List<String> errors = new ArrayList<String>();
-			serviceObject.withErrorMessages(errors);
 
-			if (currentRunCount > 1) {			
-				// set options. options initially set before evaluateRequestAndReceiveResponse
-				evaluateOption(serviceObject);
-			}
+			serviceObject = evaluateAttempt(serviceObject, currentRunCount);
+
+			waitTimeSeconds = getRetryWaitSeconds(serviceObject, watch, currentRunCount);
+			if (waitTimeSeconds > 0)
+				Helper.waitForSeconds(waitTimeSeconds);
 
+		} while (waitTimeSeconds >= 0);
+
+		return serviceObject;
+	}
+
+	/**
+	 * evaluates the request and stores the response in service object without
+	 * blocking the calling thread. attempts run on the service pool with the test
+	 * context of the caller, at most service.async.threads at a time across all
+	 * tests. rows can be submitted together and joined later
+	 * 
+	 * @param serviceObject
+	 * @return
+	 */
+	public static CompletableFuture<ServiceObject> evaluateRequestAndReceiveResponseAsync(
+			ServiceObject serviceObject) {
+		return evaluateAttemptAsync(serviceObject, StopWatchHelper.start(), 1);
+	}
+
+	private static CompletableFuture<ServiceObject> evaluateAttemptAsync(ServiceObject serviceObject,
+			StopWatchHelper watch, int currentRunCount) {
+		return ServiceExecutor.supplyAsync(() -> {
+			evaluateAttempt(serviceObject, currentRunCount);
+			return getRetryWaitSeconds(serviceObject, watch, currentRunCount);
+		}).thenCompose(waitTimeSeconds -> {
+			if (waitTimeSeconds < 0)
+				return CompletableFuture.completedFuture(serviceObject);
+			return ServiceExecutor.delay(waitTimeSeconds)
+					.thenCompose(ignore -> evaluateAttemptAsync(serviceObject, watch, currentRunCount + 1));
+		});
+	}
+
+	/**
+	 * single request attempt: builds and sends the request and validates the
+	 * response. retry attempts resend the request rendered by the first attempt.
+	 * errors are stored at serviceObject.errorMessages
+	 * 
+	 * @param serviceObject
+	 * @param currentRunCount
+	 * @return
+	 */
+	private static ServiceObject evaluateAttempt(ServiceObject serviceObject, int currentRunCount) {
+		// reset error list
+		List<String> errors = new ArrayList<String>();
+		serviceObject.withErrorMessages(errors);
+
+		// set options. options initially set before evaluateRequestAndReceiveResponse
+		if (currentRunCount > 1)
+			evaluateOption(serviceObject);
+
+		if (currentRunCount > 1 && serviceObject.getRequest() != null) {
+			TestLog.logPass("attempt #" + currentRunCount + " resending request: " + serviceObject.getUriPath());
+
+			Response response = null;
+			try {
+				response = sendRequest(serviceObject, serviceObject.getRequest());
+			} catch (Exception e) {
+				errors.add(e.getMessage());
+			}
+			serviceObject = receiveResponse(serviceObject, response);
+		} else {
 			// set base uri
 			RequestSpecification request = setURI(serviceObject);
 
@@ -296,43 +548,81 @@ public class RestApiInterface {
 
 			// send request And receive a response. adds errors if exception
 			serviceObject = evaluateRequest(serviceObject, request);
+		}
 
-			// validate the response
-			serviceObject.withErrorMessages(validateResponse(serviceObject));
-
-			passedTimeInSeconds = watch.time(TimeUnit.SECONDS);
+		// validate the response
+		serviceObject.withErrorMessages(validateResponse(serviceObject));
+		return serviceObject;
+	}
 
-			// if validation timeout is not enabled, break out of the loop
-			boolean isValidationTimeout = Config.getBooleanValue(ServiceManager.SERVICE_TIMEOUT_VALIDATION_ENABLED);
-			maxRetrySeconds = Config.getIntValue(ServiceManager.SERVICE_TIMEOUT_VALIDATION_SECONDS);
-			if (!isValidationTimeout)
-				break;
+	/**
+	 * gets wait time before the next attempt from the retry policy. wait time
+	 * does not extend past the validation timeout
+	 * 
+	 * @param serviceObject
+	 * @param watch
+	 * @param currentRunCount
+	 * @return -1 if no further attempt, else wait time in seconds
+	 */
+	private static double getRetryWaitSeconds(ServiceObject serviceObject, StopWatchHelper watch,
+			int currentRunCount) {
+		double passedTimeInSeconds = watch.time() / 1000.0;
+		boolean isValidationTimeout = Config.getBooleanValue(ServiceManager.SERVICE_TIMEOUT_VALIDATION_ENABLED);
+		int maxRetrySeconds = Config.getIntValue(ServiceManager.SERVICE_TIMEOUT_VALIDATION_SECONDS);
 
-			// log errors if exist
-			logTestRunError(currentRunCount, serviceObject.getErrorMessages());
+		// log errors if exist
+		if (isValidationTimeout)
+			logTestRunError(serviceObject.getErrorMessages());
 
-		} while (!serviceObject.getErrorMessages().isEmpty() && passedTimeInSeconds < maxRetrySeconds);
+		if (serviceObject.getErrorMessages().isEmpty()) {
+			TestLog.logPass("validation attempts: " + currentRunCount + ", time to success: "
+					+ String.format("%.3f", passedTimeInSeconds) + " seconds");
+			return -1;
+		}
 
-		if (!serviceObject.getErrorMessages().isEmpty()) {
-			TestLog.ConsoleLog("Validation failed after: " + passedTimeInSeconds + " seconds with " + currentRunCount + " retries");
+		// if validation timeout is not enabled, no further attempts
+		if (!isValidationTimeout || passedTimeInSeconds >= maxRetrySeconds) {
+			TestLog.logPass("validation attempts: " + currentRunCount + ", failed after: "
+					+ String.format("%.3f", passedTimeInSeconds) + " seconds");
+			TestLog.ConsoleLog("Validation failed after: " + (long) passedTimeInSeconds + " seconds with "
+					+ currentRunCount + " retries");
+			return -1;
 		}
 
-		return serviceObject;
+		double waitTimeSeconds = getRetryPolicy().getDelaySeconds(currentRunCount);
+		waitTimeSeconds = Math.max(0, Math.min(waitTimeSeconds, maxRetrySeconds - passedTimeInSeconds));
+		if (waitTimeSeconds > 0)
+			TestLog.ConsoleLog("attempt #" + (currentRunCount) + " waiting seconds: "
+					+ String.format("%.3f", waitTimeSeconds));
+		return waitTimeSeconds;
 	}
 
-	private static void logTestRunError(int currentRunCount, List<String> errorMessages) {
-		int waitTime = Config.getIntValue(ServiceManager.SERVICE_RESPONSE_DELAY_BETWEEN_ATTEMPTS_SECONDS);
-		double waitMultiplier = Config.getDoubleValue(ServiceManager.SERVICE_RESPONSE_DELAY_BETWEEN_ATTEMPTS_MULTIPLIER);
-		if(waitMultiplier == -1) waitMultiplier = 1;
-
+	private static void logTestRunError(List<String> errorMessages) {
 		String errors = StringUtils.join(errorMessages, "\n error: ");
 		if(!errors.isEmpty())
 			TestLog.ConsoleLog("attempt failed with message: " + ServiceObject.normalizeLog(errors));
-		if (currentRunCount > 1) {
-			double waitTimeSeconds = waitTime * Math.pow(waitMultiplier, currentRunCount - 1);
-			Helper.waitForSeconds(waitTimeSeconds);
-			TestLog.ConsoleLog("attempt #" + (currentRunCount) + " waiting seconds: " + waitTimeSeconds);
-		}
+	}
+
+	/**
+	 * sets retry policy for validation attempts of all tests. null for the
+	 * default backoff policy from config
+	 * 
+	 * @param policy
+	 */
+	public static void setRetryPolicy(RetryPolicy policy) {
+		retryPolicy = policy;
+	}
+
+	/**
+	 * gets retry policy. defaults to backoff policy from the test config
+	 * 
+	 * @return
+	 */
+	public static RetryPolicy getRetryPolicy() {
+		RetryPolicy policy = retryPolicy;
+		if (policy == null)
+			policy = BackoffRetryPolicy.fromConfig();
+		return policy;
 	}
 
 	/**
@@ -364,57 +654,145 @@ public class RestApiInterface {
 		URL aURL = Helper.convertToUrl(url);
 		TestLog.logPass("request URL: " + aURL.toString());
 
+		// base uri, port and path are set on the request only. static rest assured
+		// state is shared across parallel tests and is not modified
 		request.baseUri(aURL.getProtocol() + "://" + aURL.getHost());
 		request.port(aURL.getPort());
 		request.basePath(aURL.getPath());
 
+		// set timeout from api config
+		request = setTimeout(request);
+
+		// set proxy from api config. replayed requests are sent to the local stub
+		// server
+		if (ServiceStub.isReplay())
+			request = ServiceStub.replay(request);
+		else
+			request = setProxy(request, aURL);
+
+		// store request and response pairs for replay
+		if (ServiceStub.isRecord())
+			request = ServiceStub.record(request);
+
 		return request;
 	}
 
 	/**
 	 * set connection timeout in milliseconds
+	 * 
+	 * @deprecated sets static rest assured config, shared across parallel tests.
+	 *             use setTimeout(RequestSpecification)
 	 */
+	@Deprecated
 	public static void setTimeout() {
+		RestAssured.config = RestAssuredConfig.config().httpClient(getHttpClientConfig());
+	}
+
+	/**
+	 * set connection timeout in milliseconds on the request. connections are
+	 * leased from the shared pool if enabled
+	 * 
+	 * @param request
+	 * @return
+	 */
+	public static RequestSpecification setTimeout(RequestSpecification request) {
+		RestAssuredConfig config = RestAssuredConfig.config().httpClient(getHttpClientConfig());
+		return request.config(config);
+	}
+
+	/**
+	 * http client config with connection timeout from api config
+	 * 
+	 * @return
+	 */
+	private static HttpClientConfig getHttpClientConfig() {
 		int connectTimeout = Config.getIntValue(ServiceManager.SERVICE_RESPONSE_TIMEOUT_SECONDS);
 		if (connectTimeout == -1)
 			connectTimeout = 60; // connect timeout defaults to 60 seconds
 
-		RestAssured.config = RestAssuredConfig.config().httpClient(
-				HttpClientConfig.httpClientConfig().setParam("http.connection.timeout", connectTimeout * 1000)
-						.setParam("http.socket.timeout", connectTimeout * 1000)
-						.setParam("http.connection-manager.timeout", connectTimeout * 1000));
+		HttpClientConfig clientConfig = HttpClientConfig.httpClientConfig()
+				.setParam("http.connection.timeout", connectTimeout * 1000)
+				.setParam("http.socket.timeout", connectTimeout * 1000)
+				.setParam("http.connection-manager.timeout", connectTimeout * 1000);
 
+		// lease connections from the shared keep alive pool
+		if (HttpConnectionPool.isEnabled()) {
+			boolean isRelaxedHttps = Config.getBooleanValue(API_USE_RELAXED_HTTPS_VALIDATION);
+			clientConfig = clientConfig.httpClientFactory(HttpConnectionPool.getClientFactory(isRelaxedHttps));
+		}
+		return clientConfig;
 	}
 
 	/**
 	 * set proxy from config file value to use proxy is set at API_AUTO_PROXY_SET We
 	 * evaluate if we need to use proxy once in test run
 	 * 
-	 * @throws Exception
+	 * @deprecated sets static rest assured proxy, shared across parallel tests.
+	 *             use setProxy(RequestSpecification)
 	 */
+	@Deprecated
 	public static void setProxy() {
+		if (Config.getBooleanValue(API_USE_RELAXED_HTTPS_VALIDATION))
+			RestAssured.useRelaxedHTTPSValidation();
+
+		ProxySpecification proxy = getProxy(getBaseUrl());
+		if (proxy != null)
+			RestAssured.proxy = proxy;
+	}
+
+	/**
+	 * set proxy from config file on the request. value to use proxy is set at
+	 * API_AUTO_PROXY_SET We evaluate if we need to use proxy once in test run
+	 * 
+	 * @param request
+	 * @return
+	 */
+	public static RequestSpecification setProxy(RequestSpecification request) {
+		return setProxy(request, getBaseUrl());
+	}
+
+	/**
+	 * set proxy from config file on the request. with proxy auto detection, the
+	 * detection is done for the scheme, host and port of the request url
+	 * 
+	 * @param request
+	 * @param url     request url
+	 * @return
+	 */
+	public static RequestSpecification setProxy(RequestSpecification request, URL url) {
+		if(Config.getBooleanValue(API_USE_RELAXED_HTTPS_VALIDATION))
+			request = request.relaxedHTTPSValidation();
+
+		ProxySpecification proxy = getProxy(url);
+		if (proxy != null)
+			request = request.proxy(proxy);
+		return request;
+	}
 
+	/**
+	 * proxy from config file, if required for the url
+	 * 
+	 * @param url request url
+	 * @return null if no proxy is used
+	 */
+	private static ProxySpecification getProxy(URL url) {
 		String host = Config.getValue(TestObject.PROXY_HOST);
 		int port = Config.getIntValue(TestObject.PROXY_PORT);
 		String proxyProtocal = Config.getValue(TestObject.PROXY_PROTOCOL);
 		boolean isProxyEnabled = false;
-		
-		if(Config.getBooleanValue(API_USE_RELAXED_HTTPS_VALIDATION))
-			RestAssured.useRelaxedHTTPSValidation();
 
 		// detect if proxy is required or not
-		isProxyEnabled = UtilityHelper.isProxyRequired(getBaseUrl());
+		isProxyEnabled = UtilityHelper.isProxyRequired(url);
 		
 		if (!isProxyEnabled)
-			return;
+			return null;
 
 		if (host.isEmpty() || port == -1)
-			return;
+			return null;
 
 		if (proxyProtocal.equals("http") || proxyProtocal.equals("https"))
-			RestAssured.proxy(host, port, proxyProtocal);
-		else
-			RestAssured.proxy(host, port);
+			return ProxySpecification.host(host).withPort(port).withScheme(proxyProtocal);
+		return ProxySpecification.host(host).withPort(port);
 	}
 	
 	public static boolean getProxyState() {
@@ -434,17 +812,23 @@ public class RestApiInterface {
 			return errorMessages;
 		}
 
-		// saves response values to config object
-		saveOutBoundValues(serviceObject);
-
-		// validate status code
-		errorMessages.addAll(validateStatusCode(serviceObject.getResponse(), serviceObject));
-
-		// get response values and validate
-		String responseString = JsonHelper.getResponseValue(serviceObject.getResponse());
-		List<String> responses = new ArrayList<String>();
-		responses.add(responseString);
-		errorMessages.addAll(DataHelper.validateExpectedValues(responses, serviceObject.getExpectedResponse()));
+		try {
+			// saves response values to config object
+			saveOutBoundValues(serviceObject);
+
+			// validate status code
+			errorMessages.addAll(validateStatusCode(serviceObject.getResponse(), serviceObject));
+
+			// get response values and validate
+			String responseString = JsonHelper.getResponseValue(serviceObject.getResponse(),
+					serviceObject.getExpectedResponse());
+			List<String> responses = new ArrayList<String>();
+			responses.add(responseString);
+			errorMessages.addAll(DataHelper.validateExpectedValues(responses, serviceObject.getExpectedResponse()));
+		} finally {
+			// parsed json document is kept for the paths of this response only
+			JsonHelper.releaseParsedJson();
+		}
 
 		// remove all empty response strings
 		errorMessages = DataHelper.removeEmptyElements(errorMessages);
@@ -628,7 +1012,9 @@ public class RestApiInterface {
 
 		// set form data
 		if (serviceObject.getContentType().contains("form")) {
-			request = request.config(RestAssured.config().encoderConfig(io.restassured.config.EncoderConfig
+			// extend the request config to keep the request timeouts
+			RestAssuredConfig config = SpecificationQuerier.query(request).getConfig();
+			request = request.config(config.encoderConfig(io.restassured.config.EncoderConfig
 					.encoderConfig().encodeContentTypeAs("multipart/form-data", ContentType.TEXT)));
 
 			String[] formData = serviceObject.getRequestBody().split(",");
@@ -712,6 +1098,24 @@ public class RestApiInterface {
 			case OPTION_PAGINATION_INCREMENET:
 				Config.putValue(API_PAGINATION_INCREMENT, keyword.value, false);
 				break;
+			case OPTION_PAGINATION_PREFETCH:
+				Config.putValue(API_PAGINATION_PREFETCH, keyword.value, false);
+				break;
+			case OPTION_LOAD_CONCURRENCY:
+				Config.putValue(LoadProfile.API_LOAD_CONCURRENCY, keyword.value, false);
+				break;
+			case OPTION_LOAD_RPS:
+				Config.putValue(LoadProfile.API_LOAD_RPS, keyword.value, false);
+				break;
+			case OPTION_LOAD_DURATION_SECONDS:
+				Config.putValue(LoadProfile.API_LOAD_DURATION_SECONDS, keyword.value, false);
+				break;
+			case OPTION_LOAD_RAMP_UP_SECONDS:
+				Config.putValue(LoadProfile.API_LOAD_RAMP_UP_SECONDS, keyword.value, false);
+				break;
+			case OPTION_LOAD_MAX_ERROR_PERCENT:
+				Config.putValue(LoadProfile.API_LOAD_MAX_ERROR_PERCENT, keyword.value, false);
+				break;
 			default:
 				break;
 			}
@@ -755,6 +1159,17 @@ public class RestApiInterface {
 		Config.putValue(API_PAGINATION_MAX_PAGES, 100, false);
 		Config.putValue(API_PAGINATION_PAGES_FROM, 1, false);
 		Config.putValue(API_PAGINATION_INCREMENT, 1, false);
+
+		int defaultPrefetch = Config.getGlobalIntValue(API_PAGINATION_PREFETCH);
+		if (defaultPrefetch == -1)
+			defaultPrefetch = 1;
+		Config.putValue(API_PAGINATION_PREFETCH, defaultPrefetch, false);
+
+		// reset load profile
+		for (String loadKey : new String[] { LoadProfile.API_LOAD_CONCURRENCY, LoadProfile.API_LOAD_RPS,
+				LoadProfile.API_LOAD_DURATION_SECONDS, LoadProfile.API_LOAD_RAMP_UP_SECONDS,
+				LoadProfile.API_LOAD_MAX_ERROR_PERCENT })
+			Config.putValue(loadKey, Config.getGlobalValue(loadKey), false);
 	}
 
 	public static ServiceObject evaluateRequest(ServiceObject serviceObject, RequestSpecification request) {
@@ -762,6 +1177,27 @@ public class RestApiInterface {
 
 		List<String> errors = new ArrayList<String>();
 
+		// set request header, query parameters and body
+		request = prepareRequest(serviceObject, request);
+
+		try {
+			response = sendRequest(serviceObject, request);
+		} catch (Exception e) {
+			errors.add(e.getMessage());
+			serviceObject.withErrorMessages(errors);
+		}
+
+		return receiveResponse(serviceObject, response);
+	}
+
+	/**
+	 * sets request header, query parameters and body
+	 * 
+	 * @param serviceObject
+	 * @param request
+	 * @return
+	 */
+	public static RequestSpecification prepareRequest(ServiceObject serviceObject, RequestSpecification request) {
 		// set request header
 		request = evaluateRequestHeaders(serviceObject, request);
 
@@ -774,52 +1210,125 @@ public class RestApiInterface {
 		if(!serviceObject.getRequestBody().isEmpty())
 			TestLog.logPass("request body: " + Helper.stringRemoveLines(serviceObject.getRequestBody()));
 		TestLog.logPass("request type: " + serviceObject.getMethod());
+		return request;
+	}
 
-		try {
-			switch (serviceObject.getMethod()) {
-			case "POST":
-				response = request.when().post();
-				break;
-			case "PUT":
-				response = request.when().put();
-				break;
-			case "PATCH":
-				response = request.when().patch();
-				break;
-			case "DELETE":
-				response = request.when().delete();
-				break;
-			case "GET":
-				response = request.when().get();
-				break;
-			case "OPTIONS":
-				response = request.when().options();
-				break;
-			case "HEAD":
-				response = request.when().head();
-				break;
-			default:
-				Helper.assertTrue("request type not found", false);
-				break;
-			}
-		} catch (Exception e) {
-			errors.add(e.getMessage());
-			serviceObject.withErrorMessages(errors);
+	/**
+	 * sends the request based on request method
+	 * 
+	 * @param serviceObject
+	 * @param request
+	 * @return
+	 */
+	public static Response sendRequest(ServiceObject serviceObject, RequestSpecification request) {
+		Response response = null;
+		switch (serviceObject.getMethod()) {
+		case "POST":
+			response = request.when().post();
+			break;
+		case "PUT":
+			response = request.when().put();
+			break;
+		case "PATCH":
+			response = request.when().patch();
+			break;
+		case "DELETE":
+			response = request.when().delete();
+			break;
+		case "GET":
+			response = request.when().get();
+			break;
+		case "OPTIONS":
+			response = request.when().options();
+			break;
+		case "HEAD":
+			response = request.when().head();
+			break;
+		default:
+			Helper.assertTrue("request type not found", false);
+			break;
 		}
+		return response;
+	}
 
+	/**
+	 * logs and stores the response in service object
+	 * 
+	 * @param serviceObject
+	 * @param response
+	 * @return
+	 */
+	public static ServiceObject receiveResponse(ServiceObject serviceObject, Response response) {
 		if (response != null) {
 			TestLog.logPass("response code: " + response.getStatusCode() + ". status: " + response.getStatusLine() );
-			TestLog.logPass("response message: " + ServiceObject.normalizeLog(response.getBody().asString()));
-			serviceObject.withResponse(response.then().extract().response());
+			response = response.then().extract().response();
+			logResponseBody(response);
+			serviceObject.withResponse(response);
 		} else {
 			TestLog.logPass("response message: " + "null");
 			serviceObject.withResponse(response);			
 		}
-		
-
 		return serviceObject;
 	}
 
+	/**
+	 * logs response body. the body is decoded once and shared with validation.
+	 * bodies larger than the spool threshold in bytes are written to the report
+	 * media folder without decoding, the log shows a preview of the first bytes
+	 * with a link to the file
+	 * 
+	 * @param response
+	 */
+	private static void logResponseBody(Response response) {
+		int threshold = Config.getIntValue(API_RESPONSE_SPOOL_THRESHOLD_BYTES);
+		if (threshold == -1)
+			threshold = DEFAULT_SPOOL_THRESHOLD_BYTES;
+
+		long size = JsonHelper.getResponseSize(response);
+		if (threshold == 0 || size <= threshold) {
+			TestLog.logPass("response message: " + ServiceObject.normalizeLog(JsonHelper.getResponseValue(response)));
+			return;
+		}
+
+		int previewLength = Config.getIntValue(API_RESPONSE_SPOOL_PREVIEW_LENGTH);
+		if (previewLength == -1)
+			previewLength = DEFAULT_SPOOL_PREVIEW_LENGTH;
+		byte[] body = response.getBody().asByteArray();
+		String preview = ServiceObject.normalizeLog(
+				new String(body, 0, Math.min(body.length, previewLength), StandardCharsets.UTF_8) + "...");
+
+		String path = spoolResponseBody(response);
+		if (path.isEmpty()) {
+			TestLog.logPass("response message (" + size + " bytes): " + preview);
+			return;
+		}
+		TestLog.logPass("response message (" + size + " bytes, full body: <a href='" + path + "'>" + path + "</a>): "
+				+ preview);
+	}
+
+	/**
+	 * copies response body to the report media folder. the body is read from the
+	 * buffered response stream, no copy of it is made. json path validations of
+	 * the response read the file
+	 * 
+	 * @param response
+	 * @return path relative to the html report, empty on failure
+	 */
+	private static String spoolResponseBody(Response response) {
+		String fileName = "responses/" + TestObject.getTestId().replaceAll("[^a-zA-Z0-9_-]", "_") + "_"
+				+ UUID.randomUUID().toString() + ".txt";
+		File file = new File(ExtentManager.getMediaFolderFullPath() + fileName);
+		try (InputStream body = response.getBody().asInputStream()) {
+			file.getParentFile().mkdirs();
+			Files.copy(body, file.toPath());
+		} catch (IOException e) {
+			e.printStackTrace();
+			return StringUtils.EMPTY;
+		}
+		JsonHelper.setSpooledBody(response, file);
+		return ExtentManager.getMediaFolderRelativePathFromHtmlReport() + fileName;
+	}
+
 	/**
 	 * get base url from the config
 	 * 
@@ -136,15 +136,19 @@ public class AssertHelper {
 		String logTrimmed = StringUtils.EMPTY;
 		
 		List<String> logValues = new ArrayList<String>();
-		List<LogObject> logs = TestObject.getTestInfo().testLog;
+		TestObject test = TestObject.getTestInfo();
+		List<LogObject> logs;
+		synchronized (test) {
+			logs = new ArrayList<LogObject>(test.testLog);
+		}
 		for (LogObject log : logs) {
-			String[] logTrimmedArray = log.value.split(testname);
+			String[] logTrimmedArray = log.getValue().split(testname);
 			if(logTrimmedArray.length > 1) {
 				logTrimmed = logTrimmedArray[1];
 				logTrimmed = logTrimmed.replaceFirst(Pattern.quote("-"), "");
 				logValues.add(">" + logTrimmed);
 			}else
-				logValues.add(log.value);
+				logValues.add(log.getValue());
 		}
 		String list = StringUtils.join(logValues, "\n");
 		message = message + "\n"+ list;
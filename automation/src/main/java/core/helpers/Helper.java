@@ -106,6 +106,15 @@ public class Helper {
 		ExcelHelper.setCellData(excelObjects);
 	}
 
+	/**
+	 * writes pending cell updates for all excel files
+	 * 
+	 * @throws Exception
+	 */
+	public static void excel_flush() throws Exception {
+		ExcelHelper.flush();
+	}
+
 	// AssertHelper
 
 	/**
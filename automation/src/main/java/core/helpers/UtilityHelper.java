@@ -31,8 +31,11 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -53,7 +56,6 @@ import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.Point;
 import org.openqa.selenium.TakesScreenshot;
-import org.zeroturnaround.zip.ZipUtil;
 
 import allbegray.slack.SlackClientFactory;
 import allbegray.slack.webapi.SlackWebApiClient;
@@ -72,6 +74,9 @@ import java8.util.concurrent.ThreadLocalRandom;
 
 public class UtilityHelper {
 
+	// proxy auto detection per url. key: scheme://host:port
+	private static Map<String, CompletableFuture<ProxyDetection>> proxyDetections = new ConcurrentHashMap<String, CompletableFuture<ProxyDetection>>();
+
 	/**
 	 * generates random string of length len
 	 * 
@@ -498,9 +503,8 @@ public class UtilityHelper {
 	 */
 	public static String zipDir(String sourceDir, String destFilePath) {
 		String destFile = destFilePath + ".zip";
-		ZipUtil.pack(new File(sourceDir), new File(destFile));
-		// wait for zip file to be created
-		Helper.wait.waitForSeconds(3);
+		// returns once the zip file is complete
+		ZipHelper.zipDir(new File(sourceDir), new File(destFile));
 		return destFile;
 	}
 	
@@ -1238,6 +1242,7 @@ public class UtilityHelper {
 	 * get proxy state from proxy enabled config
 	 * values: true, false, auto
 	 * if auto is set, then through proxy detection, we set value to true or false
+	 * detection result is cached per scheme, host and port
 	 * @param url
 	 * @return
 	 */
@@ -1249,7 +1254,7 @@ public class UtilityHelper {
 		// enabled,
 		// attempt to connect to url with proxy info. if able to connect, enable proxy
 		if (proxyState.equals("auto")) {
-			isProxyEnabled = setProxyAutoDetection(url);
+			isProxyEnabled = getProxyAutoDetection(url);
 		} else
 			isProxyEnabled = getProxyState();
 		
@@ -1265,6 +1270,51 @@ public class UtilityHelper {
 		else return false;
 	}
 
+	/**
+	 * gets cached proxy auto detection for url scheme, host and port. the first
+	 * lookup runs the connection probe, concurrent lookups for the same host wait
+	 * for its result. results expire after PROXY_AUTO_DETECT_TTL_SECONDS, unreachable
+	 * hosts after PROXY_AUTO_DETECT_NEGATIVE_TTL_SECONDS. -1: kept for the test run
+	 * 
+	 * @param url
+	 * @return false if url is not set
+	 */
+	private static boolean getProxyAutoDetection(URL url) {
+		if (url == null)
+			return false;
+
+		int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+		String key = url.getProtocol() + "://" + url.getHost() + ":" + port;
+
+		while (true) {
+			CompletableFuture<ProxyDetection> detection = proxyDetections.get(key);
+			if (detection == null) {
+				CompletableFuture<ProxyDetection> probe = new CompletableFuture<ProxyDetection>();
+				detection = proxyDetections.putIfAbsent(key, probe);
+
+				// this thread won the lookup, run the probe
+				if (detection == null) {
+					try {
+						probe.complete(detectProxy(url));
+					} catch (RuntimeException e) {
+						// release waiting threads, next lookup probes again
+						proxyDetections.remove(key, probe);
+						probe.completeExceptionally(e);
+						throw e;
+					}
+					detection = probe;
+				}
+			}
+
+			ProxyDetection result = detection.join();
+			if (!result.isExpired())
+				return result.isProxyRequired;
+
+			// expired. the first thread to remove it probes again
+			proxyDetections.remove(key, detection);
+		}
+	}
+
 	/**
 	 * checks if proxy is required first attempt without proxy, second with proxy,
 	 * checking the validity of the proxy connection
@@ -1273,10 +1323,29 @@ public class UtilityHelper {
 	 * @return
 	 */
 	public static boolean setProxyAutoDetection(URL source) {
+		String proxyState = Config.getValue(TestObject.PROXY_ENABLED);
+		boolean isProxyAutoDetect = false;
+
+		if(proxyState.equals("auto"))
+			isProxyAutoDetect = true;
+		
+		// return if auto detect proxy is disabled or already set
+		if (!isProxyAutoDetect)
+			return false;
+
+		return detectProxy(source).isProxyRequired;
+	}
+
+	/**
+	 * probes the source url without proxy, then with proxy
+	 * 
+	 * @param source
+	 * @return
+	 */
+	private static ProxyDetection detectProxy(URL source) {
 
 		Proxy proxy = null;
 
-		String PROXY_ENABLED = TestObject.PROXY_ENABLED;
 		String PROXY_HOST = TestObject.PROXY_HOST;
 		String PROXY_PORT = TestObject.PROXY_PORT;
 		String PROXY_USERNAME = TestObject.PROXY_USER;
@@ -1286,22 +1355,12 @@ public class UtilityHelper {
 		int port = Config.getIntValue(PROXY_PORT);
 		String username = Config.getValue(PROXY_USERNAME);
 		String password = Config.getValue(PROXY_PASSWORD);
-		String proxyState = Config.getValue(TestObject.PROXY_ENABLED);
-		boolean isProxyAutoDetect = false;
-
-		if(proxyState.equals("auto"))
-			isProxyAutoDetect = true;
-		
-		// return if auto detect proxy is disabled or already set
-		if (!isProxyAutoDetect)
-			return false;
 		
 		// return false if connection can be established without proxy
 		boolean isValidConnection = isUrlAbleToConnect(source, null);
 		if (isValidConnection) {
-			Config.setGlobalValue(PROXY_ENABLED, false);
-			TestLog.ConsoleLog("proxy auto detect: proxy not detected");
-			return false;
+			TestLog.ConsoleLog("proxy auto detect: proxy not detected for: " + source.getHost());
+			return new ProxyDetection(false, true);
 		}
 
 		// set username/password for proxy authenticator
@@ -1322,12 +1381,35 @@ public class UtilityHelper {
 
 		// if connection was established using proxy, then return true
 		if (isValidConnection) {
-			TestLog.ConsoleLog("proxy detected, switching proxy on, host: " + host + " port: " + port);
-			Config.setGlobalValue(PROXY_ENABLED, true);
-			return true;
-		} else
-			Config.setGlobalValue(PROXY_ENABLED, false);
-		return false;
+			TestLog.ConsoleLog("proxy detected for: " + source.getHost() + ", switching proxy on, host: " + host
+					+ " port: " + port);
+			return new ProxyDetection(true, true);
+		}
+		return new ProxyDetection(false, false);
+	}
+
+	/**
+	 * proxy auto detection result with expiry
+	 */
+	private static class ProxyDetection {
+		final boolean isProxyRequired;
+		final long expiresAt;
+
+		ProxyDetection(boolean isProxyRequired, boolean isReachable) {
+			this.isProxyRequired = isProxyRequired;
+
+			// negative ttl applies to hosts not reachable with or without proxy
+			int ttlSeconds = Config.getIntValue(TestObject.PROXY_AUTO_DETECT_TTL_SECONDS);
+			int negativeTtlSeconds = Config.getIntValue(TestObject.PROXY_AUTO_DETECT_NEGATIVE_TTL_SECONDS);
+			if (!isReachable && negativeTtlSeconds != -1)
+				ttlSeconds = negativeTtlSeconds;
+
+			this.expiresAt = ttlSeconds == -1 ? Long.MAX_VALUE : System.currentTimeMillis() + ttlSeconds * 1000L;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
 	}
 	
 	public static String getMavenArtifactId() {
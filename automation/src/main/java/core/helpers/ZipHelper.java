@@ -0,0 +1,127 @@
+package core.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * zips directories. files are compressed in parallel by commons-compress and
+ * written to the zip file once all are compressed. already compressed files,
+ * such as images and videos, are stored without compression. compressed
+ * content is spooled to files next to the zip file
+ */
+public class ZipHelper {
+
+	// file types stored as is
+	private static final List<String> STORED_TYPES = Arrays.asList("png", "jpg", "jpeg", "gif", "mp4", "webm",
+			"avi", "mov", "zip", "gz", "jar", "woff", "woff2");
+
+	/**
+	 * zips the files of source directory, with paths relative to the directory.
+	 * zip64 extensions are used when the archive requires them. returns once the
+	 * zip file is complete
+	 *
+	 * @param sourceDir
+	 * @param destFile
+	 */
+	public static void zipDir(File sourceDir, File destFile) {
+		List<Path> files;
+		try (Stream<Path> paths = Files.walk(sourceDir.toPath())) {
+			files = paths.filter(Files::isRegularFile).filter(path -> !path.toFile().equals(destFile)).sorted()
+					.collect(Collectors.toList());
+		} catch (IOException e) {
+			e.printStackTrace();
+			Helper.assertFalse("could not read directory: " + sourceDir + " error: " + e.getMessage());
+			return;
+		}
+
+		File tempFile = new File(destFile.getPath() + ".tmp");
+		File spoolDir = new File(destFile.getPath() + ".parts");
+		int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), files.size()));
+		AtomicInteger count = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "zip-worker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			Files.createDirectories(spoolDir.toPath());
+
+			// each worker spools its entries to one file
+			ParallelScatterZipCreator creator = new ParallelScatterZipCreator(executor,
+					() -> new FileBasedScatterGatherBackingStore(
+							Files.createTempFile(spoolDir.toPath(), "entries", ".part").toFile()));
+			for (Path file : files) {
+				String name = sourceDir.toPath().relativize(file).toString().replace(File.separatorChar, '/');
+				ZipArchiveEntry entry = new ZipArchiveEntry(file.toFile(), name);
+				entry.setMethod(isStored(name) ? ZipEntry.STORED : ZipEntry.DEFLATED);
+				creator.addArchiveEntry(entry, () -> {
+					try {
+						return Files.newInputStream(file);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+
+			try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(tempFile)) {
+				zip.setUseZip64(Zip64Mode.AsNeeded);
+				creator.writeTo(zip);
+			}
+			Files.move(tempFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | UncheckedIOException | ExecutionException e) {
+			e.printStackTrace();
+			Helper.assertFalse("could not zip directory: " + sourceDir + " error: " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			Helper.assertFalse("zip interrupted: " + sourceDir);
+		} finally {
+			// temp file remains only if the zip failed
+			tempFile.delete();
+			deleteSpoolDir(executor, spoolDir);
+		}
+	}
+
+	private static boolean isStored(String name) {
+		String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+		return STORED_TYPES.contains(extension);
+	}
+
+	/**
+	 * stops the compress workers and removes their spool files
+	 */
+	private static void deleteSpoolDir(ExecutorService executor, File spoolDir) {
+		executor.shutdownNow();
+		try {
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			FileUtils.deleteDirectory(spoolDir);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
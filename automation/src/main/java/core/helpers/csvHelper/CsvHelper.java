@@ -25,14 +25,7 @@ public class CsvHelper {
 	 * @throws Exception
 	 */
 	public String getCellData(CsvObject csv) throws Exception {
-		CSVReader readcsv;
-		String cellValue = "";
-		readcsv = new CSVReader(new FileReader(csv.path + File.separator + csv.csvFile));
-		List<String[]> myData = readcsv.readAll();
-		cellValue = myData.get(csv.row)[csv.column];
-		readcsv.close();
-
-		return cellValue;
+		return CsvTable.getTable(csv.path + File.separator + csv.csvFile).getCell(csv.row, csv.column);
 	}
 
 	/**
@@ -67,6 +60,10 @@ public class CsvHelper {
 	public List<String[]> getAllCsvData(String filePath, int startingRow, boolean skipEmptyRows) {
 		List<String[]> csvList = new ArrayList<String[]>();
 		CSVReader readcsv;
+
+		// pending cell writes are written before reading the file directly
+		CsvTable.flush(filePath);
+
 		CSVParser parser = new CSVParserBuilder().withSeparator(',').withIgnoreQuotations(true)
 				.withIgnoreLeadingWhiteSpace(true).build();
 		try {
@@ -113,6 +110,7 @@ public class CsvHelper {
 		String csvPath = csv.path + File.separator + csv.csvFile;
 		CSVWriter writer;
 		try {
+			CsvTable.invalidate(csvPath);
 			writer = new CSVWriter(new FileWriter(csvPath));
 			writer.writeNext(csv.value);
 			writer.close();
@@ -133,6 +131,7 @@ public class CsvHelper {
 		String csvPath = csv.path + File.separator + csv.csvFile;
 		CSVWriter writer;
 		try {
+			CsvTable.invalidate(csvPath);
 			writer = new CSVWriter(new FileWriter(csvPath, true));
 			writer.writeNext(csv.value);
 			writer.close();
@@ -155,38 +154,29 @@ public class CsvHelper {
 
 	/**
 	 * update cell based on row and column. csv object must contain filename, row
-	 * and column
+	 * and column. cell is updated in the in memory table and written to file
+	 * right away, unless csv.write.batch.enabled is true. batch writes are written
+	 * once 500 are pending, or on flush
 	 * 
 	 * @param csv     csv file to update
 	 * @param value   value to write
 	 * @param csvPath path to the csv data relative to root directory
 	 */
 	public void writeToCell(CsvObject csv, String value, String csvPath) {
-
 		try {
-
-			// Read existing file
-			CSVParser parser = new CSVParserBuilder().withSeparator(',').withIgnoreQuotations(true)
-					.withIgnoreLeadingWhiteSpace(true).build();
-
-			CSVReader reader = new CSVReaderBuilder(new FileReader(csvPath)).withSkipLines(0).withCSVParser(parser)
-					.build();
-
-			List<String[]> csvBody = reader.readAll();
-			// get CSV row column and replace with by using row and column
-			csvBody.get(csv.row)[csv.column] = value;
-			reader.close();
-
-			// Write to CSV file which is open
-			CSVWriter writer = new CSVWriter(new FileWriter(csvPath));
-			writer.writeAll(csvBody);
-			writer.flush();
-			writer.close();
+			CsvTable.getTable(csvPath).setCell(csv.row, csv.column, value);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * writes pending cell updates of all csv files
+	 */
+	public void flush() {
+		CsvTable.flushAll();
+	}
+
 	/**
 	 * 
 	 * @param csv - required: csv.csvFile, csv.value value: String [] record =
@@ -196,6 +186,7 @@ public class CsvHelper {
 	public void appendCsv(CsvObject csv) {
 		String csvPath = csv.path + File.separator + csv.csvFile;
 		try {
+			CsvTable.invalidate(csvPath);
 			CSVWriter writer = new CSVWriter(new FileWriter(csvPath, true));
 			writer.writeNext(csv.value);
 			writer.close();
@@ -212,13 +203,10 @@ public class CsvHelper {
 	 * @return
 	 */
 	public int getRowIndex(String id, String filePath) {
-		List<String[]> rows = getAllCsvData(filePath, 0, false);
+		int index = CsvTable.getTable(filePath).getRowIndex(id);
+		if (index != -1)
+			return index;
 
-		for (int i = 0; i < rows.size(); i++) {
-			String rowId = rows.get(i)[0];
-			if (rowId.equals(id))
-				return i;
-		}
 		Helper.assertFalse("row not found: '" + id + "' at path: " + filePath);
 		return -1;
 	}
@@ -231,13 +219,10 @@ public class CsvHelper {
 	 * @return
 	 */
 	public int getColumnIndex(String column, String filePath) {
-		List<String[]> rows = getAllCsvData(filePath, 0, false);
-		int columnSize = rows.get(0).length;
-		for (int i = 0; i < columnSize; i++) {
-			String columnValue = rows.get(0)[i].trim();
-			if (columnValue.equals(column))
-				return i;
-		}
+		int index = CsvTable.getTable(filePath).getColumnIndex(column);
+		if (index != -1)
+			return index;
+
 		Helper.assertFalse("column not found: '" + column + "' at path: " + filePath);
 		return -1;
 	}
@@ -0,0 +1,313 @@
+package core.helpers.csvHelper;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.CSVWriter;
+
+import core.support.configReader.Config;
+
+/**
+ * in memory csv table, loaded once per file with header and key (first column)
+ * indexes. cell writes are applied to the table and recorded in a dirty cell
+ * journal. flush re-applies the journal on top of the file, if changed on disk,
+ * and replaces the file atomically (temp file + rename) under a file lock.
+ * writes are flushed on every call, or in batches if csv.write.batch.enabled is
+ * true. lock files are kept in the temp directory, so all processes lock the
+ * same file without leaving files next to the csv
+ */
+public class CsvTable {
+
+	public static final String CSV_WRITE_BATCH = "csv.write.batch.enabled";
+	public static final int FLUSH_THRESHOLD = 500;
+	private static final String LOCK_FILE_SUFFIX = ".lock";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+	private static final File LOCK_DIR = new File(System.getProperty("java.io.tmpdir"), "autonomx-csv-locks");
+
+	// key: full path of the csv file
+	private static Map<String, CsvTable> tables = new ConcurrentHashMap<String, CsvTable>();
+
+	// file locks are held per jvm, so tables of the same file take turns. key: full
+	// path of the csv file
+	private static Map<String, Object> fileLocks = new ConcurrentHashMap<String, Object>();
+
+	private final File file;
+	private long lastModified = -1;
+	private long length = -1;
+
+	// rows parsed with quotes ignored, used for writes and indexes
+	private List<String[]> rows = new ArrayList<String[]>();
+
+	// rows parsed with quotes, used for cell reads. loaded on first read
+	private List<String[]> quotedRows = null;
+	private Map<String, Integer> headerIndex = new HashMap<String, Integer>();
+	private Map<String, Integer> keyIndex = new HashMap<String, Integer>();
+
+	// dirty cells. key: row, column
+	private final Map<Integer, Map<Integer, String>> journal = new HashMap<Integer, Map<Integer, String>>();
+	private int journalCount = 0;
+
+	private CsvTable(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * gets the table for csv file path
+	 *
+	 * @param filePath
+	 * @return
+	 */
+	public static CsvTable getTable(String filePath) {
+		File file = new File(filePath);
+		return tables.computeIfAbsent(file.getAbsolutePath(), k -> new CsvTable(file));
+	}
+
+	/**
+	 * writes pending cell updates for file, if the table is loaded
+	 *
+	 * @param filePath
+	 */
+	public static void flush(String filePath) {
+		CsvTable table = tables.get(new File(filePath).getAbsolutePath());
+		if (table != null)
+			table.flush();
+	}
+
+	/**
+	 * writes pending cell updates for all csv files
+	 */
+	public static void flushAll() {
+		for (CsvTable table : tables.values())
+			table.flush();
+	}
+
+	/**
+	 * flushes pending writes and drops the table, used when the file is written
+	 * directly
+	 *
+	 * @param filePath
+	 */
+	public static void invalidate(String filePath) {
+		CsvTable table = tables.remove(new File(filePath).getAbsolutePath());
+		if (table != null)
+			table.flush();
+	}
+
+	/**
+	 * gets cell value
+	 *
+	 * @param row
+	 * @param column
+	 * @return
+	 */
+	public synchronized String getCell(int row, int column) {
+		reloadIfModified();
+		if (quotedRows == null) {
+			quotedRows = readAll(new CSVParserBuilder().build());
+			applyJournal(quotedRows);
+		}
+		return quotedRows.get(row)[column];
+	}
+
+	/**
+	 * sets cell value and records it in the journal. journal is flushed right
+	 * away, or with batch writes enabled, once the flush threshold is reached
+	 *
+	 * @param row
+	 * @param column
+	 * @param value
+	 */
+	public synchronized void setCell(int row, int column, String value) {
+		reloadIfModified();
+		applyCell(rows, row, column, value);
+		if (quotedRows != null)
+			applyCell(quotedRows, row, column, value);
+		journal.computeIfAbsent(row, k -> new HashMap<Integer, String>()).put(column, value);
+		journalCount++;
+
+		// key index tracks the first column
+		if (column == 0)
+			buildIndexes();
+
+		if (journalCount >= FLUSH_THRESHOLD || !Config.getBooleanValue(CSV_WRITE_BATCH))
+			flush();
+	}
+
+	/**
+	 * gets row index where the first column equals id
+	 *
+	 * @param id
+	 * @return -1 if not found
+	 */
+	public synchronized int getRowIndex(String id) {
+		reloadIfModified();
+		Integer index = keyIndex.get(id);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * gets column index by header value
+	 *
+	 * @param column
+	 * @return -1 if not found
+	 */
+	public synchronized int getColumnIndex(String column) {
+		reloadIfModified();
+		Integer index = headerIndex.get(column);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * writes the journal to file. the file is re-read under lock so changes from
+	 * other processes are kept, journal cells are applied, and the result replaces
+	 * the file through a temp file rename
+	 */
+	public synchronized void flush() {
+		if (journalCount == 0)
+			return;
+
+		File lockFile = getLockFile();
+		File tempFile = new File(file.getAbsolutePath() + TEMP_FILE_SUFFIX);
+
+		Object fileLock = fileLocks.computeIfAbsent(file.getAbsolutePath(), k -> new Object());
+		synchronized (fileLock) {
+			flush(lockFile, tempFile);
+		}
+	}
+
+	/**
+	 * lock file in the temp directory, named after the csv file path
+	 */
+	private File getLockFile() {
+		LOCK_DIR.mkdirs();
+		String path = file.getAbsolutePath();
+		return new File(LOCK_DIR, file.getName() + "_" + Integer.toHexString(path.hashCode()) + LOCK_FILE_SUFFIX);
+	}
+
+	private void flush(File lockFile, File tempFile) {
+		try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+
+			// apply journal on top of the latest file content
+			boolean isModified = isModified();
+			List<String[]> latest = isModified ? readAll() : rows;
+			applyJournal(latest);
+
+			CSVWriter writer = new CSVWriter(new FileWriter(tempFile));
+			writer.writeAll(latest);
+			writer.flush();
+			writer.close();
+
+			try {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			rows = latest;
+			if (isModified)
+				quotedRows = null;
+			buildIndexes();
+			journal.clear();
+			journalCount = 0;
+			lastModified = file.lastModified();
+			length = file.length();
+		} catch (Exception e) {
+			tempFile.delete();
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * reloads the table if the file changed on disk. pending journal cells are
+	 * kept on top of the reloaded content
+	 */
+	private void reloadIfModified() {
+		if (!isModified())
+			return;
+
+		rows = readAll();
+		applyJournal(rows);
+		quotedRows = null;
+		buildIndexes();
+		lastModified = file.lastModified();
+		length = file.length();
+	}
+
+	private boolean isModified() {
+		return lastModified != file.lastModified() || length != file.length();
+	}
+
+	private List<String[]> readAll() {
+		return readAll(new CSVParserBuilder().withSeparator(',').withIgnoreQuotations(true)
+				.withIgnoreLeadingWhiteSpace(true).build());
+	}
+
+	private List<String[]> readAll(CSVParser parser) {
+		List<String[]> csvBody = new ArrayList<String[]>();
+		try {
+			CSVReader reader = new CSVReaderBuilder(new FileReader(file)).withSkipLines(0).withCSVParser(parser)
+					.build();
+			csvBody = reader.readAll();
+			reader.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return csvBody;
+	}
+
+	private void buildIndexes() {
+		headerIndex = new HashMap<String, Integer>();
+		keyIndex = new HashMap<String, Integer>();
+
+		if (rows.isEmpty())
+			return;
+
+		String[] header = rows.get(0);
+		for (int i = 0; i < header.length; i++)
+			headerIndex.putIfAbsent(header[i].trim(), i);
+
+		for (int i = 0; i < rows.size(); i++) {
+			String[] row = rows.get(i);
+			if (row.length > 0)
+				keyIndex.putIfAbsent(row[0], i);
+		}
+	}
+
+	private void applyJournal(List<String[]> target) {
+		for (Map.Entry<Integer, Map<Integer, String>> row : journal.entrySet()) {
+			for (Map.Entry<Integer, String> cell : row.getValue().entrySet())
+				applyCell(target, row.getKey(), cell.getKey(), cell.getValue());
+		}
+	}
+
+	private static void applyCell(List<String[]> rows, int row, int column, String value) {
+		String[] cells = rows.get(row);
+		if (cells.length <= column) {
+			String[] expanded = new String[column + 1];
+			System.arraycopy(cells, 0, expanded, 0, cells.length);
+			for (int i = cells.length; i < expanded.length; i++)
+				expanded[i] = "";
+			cells = expanded;
+			rows.set(row, cells);
+		}
+		cells[column] = value;
+	}
+}
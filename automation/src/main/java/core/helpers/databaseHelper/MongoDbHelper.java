@@ -1,63 +1,138 @@
 package core.helpers.databaseHelper;
 
-import java.io.UnsupportedEncodingException;
-import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
-import com.mongodb.BasicDBObject;
-import com.mongodb.DB;
-import com.mongodb.DBCollection;
+import org.apache.commons.lang.StringUtils;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientURI;
 import com.mongodb.MongoCredential;
 import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
 
 public class MongoDbHelper {
 
+	private static final String DEFAULT_HOST = "localhost";
+
+	// one long lived client per connection and credentials. key: connection string
+	// or credential key
+	private static Map<String, MongoClient> clients = new ConcurrentHashMap<String, MongoClient>();
+
 	/**
-	 * assert true
+	 * deletes test data. documents with name containing "zzz_" in the mongo
+	 * collection
 	 * 
-	 * @param message
-	 * @param value
-	 * @throws UnsupportedEncodingException
-	 * @throws MalformedURLException
+	 * @param mongo
+	 * @throws Exception
 	 */
-	@SuppressWarnings("deprecation")
 	public static void deleteData(MongoObject mongo) throws Exception {
-		/*
-		 * MongoCredential credential = MongoCredential.createCredential(mongo.username,
-		 * mongo.database, mongo.password); MongoClient mongoClient = new
-		 * MongoClient(new ServerAddress("https://mongodev2.gaialandscape.com"),
-		 * Arrays.asList(credential));
-		 * 
-		 * 
-		 * URL url = new URL("ftp://" + URLEncoder.encode(mongo.username, "UTF-8") + ":"
-		 * + URLEncoder.encode(mongo.password, "UTF-8") + "@" +
-		 * "https://mongodev2.gaialandscape.com/?authSource=db1");
-		 * 
-		 * MongoClientURI uri = new MongoClientURI("mongodb://Fortify:" +
-		 * URLEncoder.encode(mongo.password, "UTF-8") +
-		 * "@https://mongodev2.gaialandscape.com/?authSource=db1"); MongoClient
-		 * mongoClient = new MongoClient(uri);
-		 */
-
-		List<ServerAddress> seeds = new ArrayList<ServerAddress>();
-		seeds.add(new ServerAddress("localhost"));
-		List<MongoCredential> credentials = new ArrayList<MongoCredential>();
-		credentials.add(
-				MongoCredential.createMongoCRCredential(mongo.username, mongo.database, mongo.password.toCharArray()));
-		MongoClient mongoClient = new MongoClient(seeds, credentials);
-
-		DB db = mongoClient.getDB(mongo.database);
-
-		DBCollection collection = db.getCollection("Person");
-
-		BasicDBObject query = new BasicDBObject();
-		query.put("name", Pattern.compile(Pattern.quote("zzz_")));
-
-		collection.remove(query);
-
-		mongoClient.close();
+		Bson query = Filters.regex("name", Pattern.compile(Pattern.quote("zzz_")));
+		getCollection(mongo).deleteMany(query);
+	}
+
+	/**
+	 * deletes documents matching any of the filters in a single unordered bulk
+	 * write
+	 * 
+	 * @param mongo
+	 * @param filters
+	 * @return number of deleted documents
+	 */
+	public static int deleteDocuments(MongoObject mongo, List<Bson> filters) {
+		if (filters.isEmpty())
+			return 0;
+
+		List<WriteModel<Document>> requests = new ArrayList<WriteModel<Document>>();
+		for (Bson filter : filters)
+			requests.add(new DeleteManyModel<Document>(filter));
+
+		BulkWriteResult result = getCollection(mongo).bulkWrite(requests, new BulkWriteOptions().ordered(false));
+		return result.getDeletedCount();
+	}
+
+	/**
+	 * inserts documents in a single unordered bulk write
+	 * 
+	 * @param mongo
+	 * @param documents
+	 * @return number of inserted documents
+	 */
+	public static int insertDocuments(MongoObject mongo, List<Document> documents) {
+		if (documents.isEmpty())
+			return 0;
+
+		List<WriteModel<Document>> requests = new ArrayList<WriteModel<Document>>();
+		for (Document document : documents)
+			requests.add(new InsertOneModel<Document>(document));
+
+		BulkWriteResult result = getCollection(mongo).bulkWrite(requests, new BulkWriteOptions().ordered(false));
+		return result.getInsertedCount();
+	}
+
+	/**
+	 * gets the collection set in mongo object using the shared client
+	 * 
+	 * @param mongo
+	 * @return
+	 */
+	public static MongoCollection<Document> getCollection(MongoObject mongo) {
+		return getClient(mongo).getDatabase(mongo.database).getCollection(mongo.collection);
+	}
+
+	/**
+	 * gets the shared mongo client for the connection. the client is thread safe
+	 * and keeps its own connection pool, so it is created once and reused across
+	 * tests and threads. changed credentials get a new client
+	 * 
+	 * @param mongo
+	 * @return
+	 */
+	@SuppressWarnings("deprecation")
+	public static MongoClient getClient(MongoObject mongo) {
+		if (StringUtils.isNotBlank(mongo.connectionString))
+			return clients.computeIfAbsent(mongo.connectionString,
+					k -> new MongoClient(new MongoClientURI(mongo.connectionString)));
+
+		return clients.computeIfAbsent(getCredentialKey(mongo), k -> {
+			List<ServerAddress> seeds = new ArrayList<ServerAddress>();
+			seeds.add(new ServerAddress(DEFAULT_HOST));
+			List<MongoCredential> credentials = new ArrayList<MongoCredential>();
+			credentials.add(MongoCredential.createMongoCRCredential(mongo.username, mongo.database,
+					mongo.password.toCharArray()));
+			return new MongoClient(seeds, credentials);
+		});
+	}
+
+	/**
+	 * client key for user credentials. credentials are created with the database
+	 * as auth source
+	 * 
+	 * @param mongo
+	 * @return
+	 */
+	private static String getCredentialKey(MongoObject mongo) {
+		return mongo.username + ":" + mongo.password + "@" + DEFAULT_HOST + "/" + mongo.database + "?authSource="
+				+ mongo.database;
+	}
+
+	/**
+	 * closes all shared mongo clients
+	 */
+	public static void closeClients() {
+		for (MongoClient client : clients.values())
+			client.close();
+		clients.clear();
 	}
-}
\ No newline at end of file
+}
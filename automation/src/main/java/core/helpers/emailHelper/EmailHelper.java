@@ -2,92 +2,282 @@ package core.helpers.emailHelper;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.mail.Folder;
 import javax.mail.Message;
 import javax.mail.MessagingException;
 import javax.mail.Session;
-import javax.mail.Store;
+import javax.mail.UIDFolder;
 import javax.mail.search.SearchTerm;
+import javax.mail.search.SubjectTerm;
 
+import com.sun.mail.imap.IMAPFolder;
+import com.sun.mail.imap.IMAPStore;
+
+import core.helpers.Helper;
+import core.helpers.StopWatchHelper;
 import core.support.logger.TestLog;
 
 public class EmailHelper {
 
+	private static final String IDLE_CAPABILITY = "IDLE";
+	private static final int POLL_INTERVAL_SECONDS = 5;
+	private static final int IDLE_MAX_SECONDS = 60;
+
+	// open mailbox connections reused across searches. key: user@host/folder
+	private static Map<String, Mailbox> mailboxes = new ConcurrentHashMap<String, Mailbox>();
+
+	// uid of the last message returned per mailbox and search. key:
+	// mailbox:uidValidity:subject
+	private static Map<String, Long> highWaterMarks = new ConcurrentHashMap<String, Long>();
+
+	// ends idle at the wait deadline. shut down with the mailboxes
+	private static ScheduledExecutorService idleTimer = null;
+
 	/**
-	 * 
-	 * @param message
-	 * @param value
+	 * searches the mailbox for email with subject and logs the message content
+	 *
+	 * @param email requires: toEmail, password, subject
 	 * @throws Exception
 	 */
 	public static void searchEmail(final EmailObject email) throws Exception {
-		Properties props = System.getProperties();
-		props.setProperty("mail.store.protocol", "imaps");
+		TestLog.ConsoleLog(getEmailContent(email));
+	}
 
-		Session session = Session.getDefaultInstance(props, null);
-		Store store = session.getStore("imaps");
-		store.connect("imap.gmail.com", email.toEmail, email.password);
+	/**
+	 * searches the mailbox for email with subject and returns the message content
+	 *
+	 * @param email requires: toEmail, password, subject
+	 * @return content of the first matching email
+	 * @throws Exception
+	 */
+	public static String getEmailContent(final EmailObject email) throws Exception {
+		Mailbox mailbox = getMailbox(email);
 
-		Folder folder = store.getFolder("INBOX");
-		folder.open(Folder.READ_WRITE);
+		synchronized (mailbox) {
+			Message[] foundMessages = mailbox.searchMessages(email.subject, null);
 
-		TestLog.ConsoleLog("Total Message:" + folder.getMessageCount());
-		TestLog.ConsoleLog("Unread Message:" + folder.getUnreadMessageCount());
+			// Test fails if no mail was found
+			if (foundMessages.length == 0)
+				throw new Exception("Could not find new mail");
 
-		boolean isMailFound = false;
-		Message mailFrom = null;
+			Message mail = foundMessages[0];
+			TestLog.ConsoleLog("message.getSubject(): " + mail.getSubject());
+			TestLog.ConsoleLog("Message Count is: " + mail.getMessageNumber());
 
-		// Search for mail
-		// creates a search criterion
-		@SuppressWarnings("serial")
-		SearchTerm searchCondition = new SearchTerm() {
+			String line;
+			StringBuffer buffer = new StringBuffer();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(mail.getInputStream()));
+			while ((line = reader.readLine()) != null) {
+				buffer.append(line);
+			}
+			reader.close();
+			return buffer.toString();
+		}
+	}
 
-			@Override
-			public boolean match(Message message) {
-				try {
-					if (message.getSubject().contains(email.subject)) {
-						TestLog.ConsoleLog("message.getSubject()" + message.getSubject());
-						return true;
-					}
-				} catch (MessagingException ex) {
-					ex.printStackTrace();
+	/**
+	 * waits for email with subject to arrive, newer than the last email returned
+	 * for the subject. search is done on the server. while waiting, only messages
+	 * newer than the last examined uid are searched. uses imap idle for push
+	 * notification when supported, else polls
+	 *
+	 * @param email          requires: toEmail, password, subject
+	 * @param timeoutSeconds max wait time. 0 for a single search
+	 * @return latest matching message, null if not found
+	 * @throws Exception
+	 */
+	public static Message waitForEmail(final EmailObject email, int timeoutSeconds) throws Exception {
+		Mailbox mailbox = getMailbox(email);
+		StopWatchHelper watch = StopWatchHelper.start();
+
+		synchronized (mailbox) {
+			String markKey = mailbox.getMarkKey(email.subject);
+			Long lastUid = highWaterMarks.get(markKey);
+			while (true) {
+				long examinedUid = mailbox.getLastUid();
+				Message[] foundMessages = mailbox.searchMessages(email.subject, lastUid);
+				if (foundMessages.length > 0) {
+					Message mail = foundMessages[foundMessages.length - 1];
+					TestLog.ConsoleLog("message.getSubject(): " + mail.getSubject());
+
+					// mark is advanced only once a message is returned. uid is read from the
+					// folder that fetched the message
+					highWaterMarks.put(markKey, ((UIDFolder) mail.getFolder()).getUID(mail));
+					return mail;
 				}
-				return false;
+
+				// next poll searches messages arrived after this search only
+				if (lastUid == null || examinedUid > lastUid)
+					lastUid = examinedUid;
+
+				long remainingSeconds = timeoutSeconds - watch.time(TimeUnit.SECONDS);
+				if (remainingSeconds <= 0)
+					return null;
+
+				mailbox.waitForNewMessages(remainingSeconds);
 			}
-		};
-
-		// performs search through the folder
-		Message[] foundMessages = folder.search(searchCondition);
-
-		// Search for unread mail from God
-		// This is to avoid using the mail for which
-		// Registration is already done
-		for (Message mail : foundMessages) {
-			mailFrom = mail;
-			TestLog.ConsoleLog("Message Count is: " + mailFrom.getMessageNumber());
-			isMailFound = true;
-			break;
 		}
+	}
 
-		// Test fails if no unread mail was found from God
-		if (!isMailFound) {
-			throw new Exception("Could not find new mail");
+	/**
+	 * closes all open mailbox connections and stops the idle timer. called at the
+	 * end of the test suite
+	 */
+	public static void closeMailboxes() {
+		for (Mailbox mailbox : mailboxes.values())
+			mailbox.close();
+		mailboxes.clear();
 
-			// Read the content of mail And launch registration URL
-		} else {
-			String line;
-			StringBuffer buffer = new StringBuffer();
-			BufferedReader reader = new BufferedReader(new InputStreamReader(mailFrom.getInputStream()));
-			while ((line = reader.readLine()) != null) {
-				buffer.append(line);
+		synchronized (EmailHelper.class) {
+			if (idleTimer != null)
+				idleTimer.shutdownNow();
+			idleTimer = null;
+		}
+	}
+
+	private static Mailbox getMailbox(EmailObject email) {
+		String key = email.toEmail + "@" + email.imapHost + ":" + email.imapPort + "/" + email.folder;
+		return mailboxes.computeIfAbsent(key, k -> new Mailbox(k, email));
+	}
+
+	private static synchronized ScheduledExecutorService getIdleTimer() {
+		if (idleTimer == null) {
+			idleTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "email-idle-timer");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return idleTimer;
+	}
+
+	/**
+	 * imap connection to a single folder. reconnects if the connection was dropped
+	 */
+	private static class Mailbox {
+		private final String key;
+		private final EmailObject email;
+		private IMAPStore store = null;
+		private IMAPFolder folder = null;
+
+		Mailbox(String key, EmailObject email) {
+			this.key = key;
+			this.email = email;
+		}
+
+		IMAPFolder getFolder() throws MessagingException {
+			if (store == null || !store.isConnected()) {
+				Properties props = new Properties();
+				props.setProperty("mail.store.protocol", email.imapProtocol);
+
+				Session session = Session.getInstance(props, null);
+				store = (IMAPStore) session.getStore(email.imapProtocol);
+				store.connect(email.imapHost, email.imapPort, email.toEmail, email.password);
+				folder = null;
+			}
+
+			if (folder == null || !folder.isOpen()) {
+				folder = (IMAPFolder) store.getFolder(email.folder);
+				folder.open(Folder.READ_WRITE);
+
+				TestLog.ConsoleLog("Total Message:" + folder.getMessageCount());
+				TestLog.ConsoleLog("Unread Message:" + folder.getUnreadMessageCount());
 			}
+			return folder;
+		}
+
+		/**
+		 * server side subject search, limited to messages above the uid if set
+		 *
+		 * @param subject
+		 * @param lastUid null to search all messages
+		 * @return matching messages in ascending uid order
+		 * @throws MessagingException
+		 */
+		Message[] searchMessages(String subject, Long lastUid) throws MessagingException {
+			IMAPFolder imapFolder = getFolder();
+
+			// standard search terms are sent to the server as imap SEARCH
+			SearchTerm searchCondition = new SubjectTerm(subject);
+			if (lastUid == null)
+				return imapFolder.search(searchCondition);
+
+			Message[] newMessages = imapFolder.getMessagesByUID(lastUid + 1, UIDFolder.LASTUID);
+			if (newMessages.length == 0)
+				return newMessages;
 
-			// Your logic to split the message And get the Registration URL goes
-			// here
-			String registrationURL = buffer.toString().split("&amp;gt;http://www.god.de/members/?")[0]
-					.split("href=")[1];
-			TestLog.ConsoleLog(registrationURL);
+			// "uid n:*" always returns the last message, so filter by uid
+			List<Message> messages = new ArrayList<Message>();
+			for (Message message : imapFolder.search(searchCondition, newMessages)) {
+				if (imapFolder.getUID(message) > lastUid)
+					messages.add(message);
+			}
+			return messages.toArray(new Message[messages.size()]);
+		}
+
+		/**
+		 * @return uid of the newest message in the folder, 0 if empty
+		 * @throws MessagingException
+		 */
+		long getLastUid() throws MessagingException {
+			IMAPFolder imapFolder = getFolder();
+			int count = imapFolder.getMessageCount();
+			return count > 0 ? imapFolder.getUID(imapFolder.getMessage(count)) : 0;
+		}
+
+		String getMarkKey(String subject) throws MessagingException {
+			return key + ":" + getFolder().getUIDValidity() + ":" + subject;
+		}
+
+		/**
+		 * blocks until new messages arrive or the wait time is reached
+		 *
+		 * @param maxSeconds
+		 * @throws MessagingException
+		 */
+		void waitForNewMessages(long maxSeconds) throws MessagingException {
+			IMAPFolder imapFolder = getFolder();
+
+			if (!store.hasCapability(IDLE_CAPABILITY)) {
+				Helper.waitForSeconds(Math.min(maxSeconds, POLL_INTERVAL_SECONDS));
+				return;
+			}
+
+			// any other command on the folder ends the idle
+			ScheduledFuture<?> timeout = getIdleTimer().schedule(() -> {
+				try {
+					imapFolder.getMessageCount();
+				} catch (Exception e) {
+					e.getMessage();
+				}
+			}, Math.min(maxSeconds, IDLE_MAX_SECONDS), TimeUnit.SECONDS);
+
+			try {
+				imapFolder.idle(true);
+			} finally {
+				timeout.cancel(false);
+			}
+		}
+
+		synchronized void close() {
+			try {
+				if (folder != null && folder.isOpen())
+					folder.close(false);
+				if (store != null)
+					store.close();
+			} catch (Exception e) {
+				e.getMessage();
+			}
 		}
 	}
-}
\ No newline at end of file
+}
@@ -14,6 +14,10 @@ public class EmailObject {
 	public String smtpPort;
 	public Boolean smtpStarttlsEnabled;
 	public Boolean smtpAuth;
+	public String imapHost = "imap.gmail.com";
+	public int imapPort = -1; // -1 for protocol default
+	public String imapProtocol = "imaps";
+	public String folder = "INBOX";
 
 	public EmailObject withToEmail(String toEmail) {
 		this.toEmail = toEmail;
@@ -74,4 +78,24 @@ public class EmailObject {
 		this.smtpAuth = smtpAuth;
 		return this;
 	}
-}
\ No newline at end of file
+
+	public EmailObject withImapHost(String imapHost) {
+		this.imapHost = imapHost;
+		return this;
+	}
+
+	public EmailObject withImapPort(int imapPort) {
+		this.imapPort = imapPort;
+		return this;
+	}
+
+	public EmailObject withImapProtocol(String imapProtocol) {
+		this.imapProtocol = imapProtocol;
+		return this;
+	}
+
+	public EmailObject withFolder(String folder) {
+		this.folder = folder;
+		return this;
+	}
+}
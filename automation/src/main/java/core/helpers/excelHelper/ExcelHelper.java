@@ -1,15 +1,9 @@
 package core.helpers.excelHelper;
 
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 public class ExcelHelper {
@@ -17,13 +11,16 @@ public class ExcelHelper {
 	public static final String Path_TestData = "testData/";
 
 	/**
-	 * gets the excel file And the work sheet
+	 * gets the excel file And the work sheet. the full workbook is loaded in
+	 * memory. pending batch writes to the file are written first
 	 * 
 	 * @param Path
 	 * @param SheetName
 	 * @throws Exception
 	 */
 	public static ExcelObject setExcelFile(ExcelObject excel) throws Exception {
+		getWorkbook(excel).flush();
+
 		// Open the Excel file
 		FileInputStream ExcelFile = new FileInputStream(Path_TestData + excel.file);
 		// Access the required test data sheet
@@ -34,7 +31,9 @@ public class ExcelHelper {
 	}
 
 	/**
-	 * returns all the column data as array list of string
+	 * returns all the column data as array list of string. empty cells of
+	 * existing rows are returned as empty string. numeric, date and formula cells
+	 * are returned as formatted in excel
 	 * 
 	 * @param colNum
 	 * @return
@@ -42,16 +41,16 @@ public class ExcelHelper {
 	 */
 	public static List<String> getColumData(ExcelObject excel) throws Exception {
 
-		excel = setExcelFile(excel);
-
 		List<String> columnData = new ArrayList<String>();
 		String cellData;
 
-		for (Row row : excel.ExcelWSheet) { // For each Row.
-			Cell cell = row.getCell(excel.column); // Get the Cell at the Index / Column you want.
-			cellData = cell.getStringCellValue();
-			if (cellData != null) {
-				columnData.add(cellData);
+		ExcelWorkbookCache workbook = getWorkbook(excel);
+		synchronized (workbook) {
+			for (String[] row : workbook.getRows(excel.sheetName)) { // For each Row.
+				if (row == null)
+					continue;
+				cellData = excel.column < row.length ? row[excel.column] : null; // Get the Cell at the Index / Column you want.
+				columnData.add(cellData == null ? "" : cellData);
 			}
 		}
 		return columnData;
@@ -59,7 +58,10 @@ public class ExcelHelper {
 
 	/**
 	 * This method is to read the test data from the Excel cell, in this we are
-	 * passing parameters as Row num And Col num
+	 * passing parameters as Row num And Col num. Sheets are read once and cached
+	 * per file. Empty and missing cells return empty string. Numeric, date and
+	 * formula cells return the value as formatted in excel, where reading them as
+	 * string cells failed before
 	 * 
 	 * @param RowNum
 	 * @param ColNum
@@ -68,42 +70,21 @@ public class ExcelHelper {
 	 */
 
 	public static String getCellData(ExcelObject excel) throws Exception {
-		setExcelFile(excel);
-
-		XSSFCell Cell = excel.ExcelWSheet.getRow(excel.row).getCell(excel.column);
-		String CellData = Cell.getStringCellValue();
-		return CellData;
-
+		String cellData = getWorkbook(excel).getCell(excel.sheetName, excel.row, excel.column);
+		return cellData == null ? "" : cellData;
 	}
 
 	/**
 	 * This method is to write in the Excel cell, Row num And Col num are the
-	 * parameters
+	 * parameters. The value is written to file right away, unless
+	 * excel.write.batch.enabled is true. Batch writes are written once 1000 are
+	 * pending, When the file is read with setExcelFile, or on flush
 	 * 
 	 * @param excel - required: excel.row, excel.column, excel.value, excel.file
 	 * @throws Exception
 	 */
 	public static void setCellData(ExcelObject excel) throws Exception {
-
-		setExcelFile(excel);
-		XSSFCell Cell;
-		XSSFRow Row;
-
-		Row = excel.ExcelWSheet.getRow(excel.row);
-		Cell = Row.getCell(excel.column, MissingCellPolicy.RETURN_BLANK_AS_NULL);
-		if (Cell == null) {
-			Cell = Row.createCell(excel.column);
-			Cell.setCellValue(excel.value);
-		} else {
-			Cell.setCellValue(excel.value);
-		}
-
-		// Constant variables Test Data path And Test Data file name
-		FileOutputStream fileOut = new FileOutputStream(Path_TestData + excel.file);
-		excel.ExcelWBook.write(fileOut);
-		fileOut.flush();
-		fileOut.close();
-
+		getWorkbook(excel).setCell(excel.sheetName, excel.row, excel.column, excel.value);
 	}
 
 	/**
@@ -112,24 +93,19 @@ public class ExcelHelper {
 	 * @throws Exception
 	 */
 	public static void setCellData(List<ExcelObject> excelObjects) throws Exception {
-		setExcelFile(excelObjects.get(0));
-		XSSFCell Cell;
-		XSSFRow Row;
-
-		for (ExcelObject excel : excelObjects) {
-			Row = excel.ExcelWSheet.getRow(excel.row);
-			Cell = Row.getCell(excel.column, MissingCellPolicy.RETURN_BLANK_AS_NULL);
-			if (Cell == null) {
-				Cell = Row.createCell(excel.column);
-				Cell.setCellValue(excel.value);
-			} else {
-				Cell.setCellValue(excel.value);
-			}
-		}
-		// Constant variables Test Data path And Test Data file name
-		FileOutputStream fileOut = new FileOutputStream(Path_TestData + excelObjects.get(0).file);
-		excelObjects.get(0).ExcelWBook.write(fileOut);
-		fileOut.flush();
-		fileOut.close();
+		getWorkbook(excelObjects.get(0)).setCells(excelObjects.get(0).sheetName, excelObjects);
+	}
+
+	/**
+	 * writes pending batch cell updates for all excel files
+	 * 
+	 * @throws Exception
+	 */
+	public static void flush() throws Exception {
+		ExcelWorkbookCache.flushAll();
+	}
+
+	private static ExcelWorkbookCache getWorkbook(ExcelObject excel) {
+		return ExcelWorkbookCache.getWorkbook(Path_TestData + excel.file);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,521 @@
+package core.helpers.excelHelper;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import core.support.configReader.Config;
+
+/**
+ * cached excel workbook access. sheets are parsed once with the sax event
+ * reader into row indexed string arrays and kept per file. cell writes are
+ * patched into the sheet xml while the file is copied, without loading the
+ * workbook. formulas, styles and other cells are kept as is. writes are
+ * flushed on every call, or in batches if excel.write.batch.enabled is true
+ */
+public class ExcelWorkbookCache {
+
+	public static final String EXCEL_WRITE_BATCH = "excel.write.batch.enabled";
+	public static final int FLUSH_THRESHOLD = 1000;
+
+	// key: full path of the excel file
+	private static Map<String, ExcelWorkbookCache> workbooks = new ConcurrentHashMap<String, ExcelWorkbookCache>();
+
+	private final File file;
+	private long lastModified = -1;
+
+	// key: sheet name
+	private final Map<String, List<String[]>> sheets = new HashMap<String, List<String[]>>();
+
+	// zip entry of the sheet xml. key: sheet name
+	private final Map<String, String> sheetParts = new HashMap<String, String>();
+
+	// pending writes. key: sheet name, row, column
+	private final Map<String, Map<Integer, Map<Integer, String>>> pendingWrites = new HashMap<String, Map<Integer, Map<Integer, String>>>();
+	private int pendingCount = 0;
+
+	private ExcelWorkbookCache(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * gets the cached workbook for file path
+	 *
+	 * @param path
+	 * @return
+	 */
+	public static ExcelWorkbookCache getWorkbook(String path) {
+		File file = new File(path);
+		return workbooks.computeIfAbsent(file.getAbsolutePath(), k -> new ExcelWorkbookCache(file));
+	}
+
+	/**
+	 * flushes pending writes of all cached workbooks
+	 *
+	 * @throws Exception
+	 */
+	public static void flushAll() throws Exception {
+		for (ExcelWorkbookCache workbook : workbooks.values())
+			workbook.flush();
+	}
+
+	/**
+	 * gets all rows of the sheet. missing rows are null
+	 *
+	 * @param sheetName
+	 * @return
+	 * @throws Exception
+	 */
+	public synchronized List<String[]> getRows(String sheetName) throws Exception {
+		reloadIfModified();
+
+		List<String[]> rows = sheets.get(sheetName);
+		if (rows == null)
+			throw new IllegalArgumentException("sheet not found: " + sheetName + " at file: " + file.getPath());
+		return rows;
+	}
+
+	/**
+	 * gets cell value, null if cell does not exist
+	 *
+	 * @param sheetName
+	 * @param row
+	 * @param column
+	 * @return
+	 * @throws Exception
+	 */
+	public synchronized String getCell(String sheetName, int row, int column) throws Exception {
+		List<String[]> rows = getRows(sheetName);
+		if (row >= rows.size() || rows.get(row) == null || column >= rows.get(row).length)
+			return null;
+		return rows.get(row)[column];
+	}
+
+	/**
+	 * sets cell value and writes it to file. with batch writes enabled, the write
+	 * is kept until the flush threshold is reached, the file is read with
+	 * ExcelHelper.setExcelFile, or flush is called
+	 *
+	 * @param sheetName
+	 * @param row
+	 * @param column
+	 * @param value
+	 * @throws Exception
+	 */
+	public synchronized void setCell(String sheetName, int row, int column, String value) throws Exception {
+		journalCell(sheetName, row, column, value);
+
+		if (pendingCount >= FLUSH_THRESHOLD || !Config.getBooleanValue(EXCEL_WRITE_BATCH))
+			flush();
+	}
+
+	/**
+	 * sets cell values and writes them to file at once
+	 *
+	 * @param sheetName sheet for values without sheet name
+	 * @param excelObjects
+	 * @throws Exception
+	 */
+	public synchronized void setCells(String sheetName, List<ExcelObject> excelObjects) throws Exception {
+		for (ExcelObject excel : excelObjects) {
+			String sheet = excel.sheetName == null ? sheetName : excel.sheetName;
+			journalCell(sheet, excel.row, excel.column, excel.value);
+		}
+		flush();
+	}
+
+	/**
+	 * sets cell value in cache and journals the write
+	 */
+	private void journalCell(String sheetName, int row, int column, String value) throws Exception {
+		List<String[]> rows = getRows(sheetName);
+		while (rows.size() <= row)
+			rows.add(null);
+
+		String[] cells = rows.get(row);
+		if (cells == null)
+			cells = new String[column + 1];
+		else if (cells.length <= column) {
+			String[] expanded = new String[column + 1];
+			System.arraycopy(cells, 0, expanded, 0, cells.length);
+			cells = expanded;
+		}
+		cells[column] = value;
+		rows.set(row, cells);
+
+		pendingWrites.computeIfAbsent(sheetName, k -> new HashMap<Integer, Map<Integer, String>>())
+				.computeIfAbsent(row, k -> new HashMap<Integer, String>()).put(column, value);
+		pendingCount++;
+	}
+
+	/**
+	 * writes pending cell updates to file. the file is copied entry by entry to a
+	 * temp file that replaces the original. sheets with pending cells are streamed
+	 * through the sheet patcher, other entries are copied as is
+	 *
+	 * @throws Exception
+	 */
+	public synchronized void flush() throws Exception {
+		if (pendingCount == 0)
+			return;
+
+		// pending writes by sheet xml entry
+		Map<String, Map<Integer, Map<Integer, String>>> partWrites = new HashMap<String, Map<Integer, Map<Integer, String>>>();
+		for (Map.Entry<String, Map<Integer, Map<Integer, String>>> sheetWrites : pendingWrites.entrySet()) {
+			String part = sheetParts.get(sheetWrites.getKey());
+			if (part == null)
+				throw new IllegalArgumentException(
+						"sheet not found: " + sheetWrites.getKey() + " at file: " + file.getPath());
+			partWrites.put(part, sheetWrites.getValue());
+		}
+
+		File tempFile = new File(file.getAbsolutePath() + ".tmp");
+		try (ZipFile source = new ZipFile(file);
+				ZipOutputStream target = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+			Enumeration<? extends ZipEntry> entries = source.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				target.putNextEntry(new ZipEntry(entry.getName()));
+				try (InputStream input = source.getInputStream(entry)) {
+					Map<Integer, Map<Integer, String>> writes = partWrites.get(entry.getName());
+					if (writes == null)
+						IOUtils.copy(input, target);
+					else
+						new SheetPatcher(input, target, writes).patch();
+				}
+				target.closeEntry();
+			}
+		} catch (Exception e) {
+			tempFile.delete();
+			throw e;
+		}
+		Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		pendingWrites.clear();
+		pendingCount = 0;
+		lastModified = file.lastModified();
+	}
+
+	/**
+	 * reloads the sheets if the file has changed on disk. pending writes take
+	 * priority over external changes
+	 *
+	 * @throws Exception
+	 */
+	private void reloadIfModified() throws Exception {
+		if (lastModified == file.lastModified() || pendingCount > 0)
+			return;
+
+		sheets.clear();
+		sheetParts.clear();
+		parseSheets();
+		lastModified = file.lastModified();
+	}
+
+	/**
+	 * parses all sheets of the workbook with the sax event reader
+	 *
+	 * @throws Exception
+	 */
+	private void parseSheets() throws Exception {
+		OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+		try {
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			XSSFReader reader = new XSSFReader(pkg);
+			StylesTable styles = reader.getStylesTable();
+			DataFormatter formatter = new DataFormatter();
+
+			XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+			while (iterator.hasNext()) {
+				try (InputStream stream = iterator.next()) {
+					List<String[]> rows = new ArrayList<String[]>();
+					sheets.put(iterator.getSheetName(), rows);
+
+					// part name is the zip entry, with leading slash
+					sheetParts.put(iterator.getSheetName(), iterator.getSheetPart().getPartName().getName().substring(1));
+
+					XMLReader parser = XMLHelper.newXMLReader();
+					parser.setContentHandler(
+							new XSSFSheetXMLHandler(styles, null, strings, new SheetReader(rows), formatter, false));
+					parser.parse(new InputSource(stream));
+				}
+			}
+		} finally {
+			// read only package, release without saving
+			pkg.revert();
+		}
+	}
+
+	/**
+	 * collects sheet rows into row indexed string arrays
+	 */
+	private static class SheetReader implements SheetContentsHandler {
+		private final List<String[]> rows;
+		private List<String> cells;
+		private int currentColumn;
+
+		SheetReader(List<String[]> rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			while (rows.size() < rowNum)
+				rows.add(null);
+			cells = new ArrayList<String>();
+			currentColumn = -1;
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			rows.add(cells.toArray(new String[cells.size()]));
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			currentColumn = cellReference == null ? currentColumn + 1 : new CellReference(cellReference).getCol();
+			while (cells.size() < currentColumn)
+				cells.add(null);
+			cells.add(formattedValue);
+		}
+	}
+
+	/**
+	 * streams sheet xml from input to output, replacing the pending cells. missing
+	 * rows and cells are inserted in order. replaced cells keep their style and
+	 * formula, the value is written as inline string, or as the cached formula
+	 * result. other content is copied as is
+	 */
+	private static class SheetPatcher {
+		private static final String ROW = "row";
+		private static final String CELL = "c";
+		private static final String FORMULA = "f";
+		private static final String SHEET_DATA = "sheetData";
+
+		private final XMLEventFactory events = XMLEventFactory.newInstance();
+		private final XMLEventReader reader;
+		private final XMLEventWriter writer;
+
+		// pending writes in row and column order
+		private final TreeMap<Integer, TreeMap<Integer, String>> writes = new TreeMap<Integer, TreeMap<Integer, String>>();
+
+		// element names of the sheet, with its namespace prefix
+		private String prefix = "";
+		private String namespace = "";
+
+		SheetPatcher(InputStream input, ZipOutputStream output, Map<Integer, Map<Integer, String>> writes)
+				throws XMLStreamException {
+			XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+			inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			this.reader = inputFactory.createXMLEventReader(input);
+			this.writer = XMLOutputFactory.newInstance().createXMLEventWriter(output, "UTF-8");
+			for (Map.Entry<Integer, Map<Integer, String>> row : writes.entrySet())
+				this.writes.put(row.getKey(), new TreeMap<Integer, String>(row.getValue()));
+		}
+
+		void patch() throws XMLStreamException {
+			boolean isSheetData = false;
+			boolean isRow = false;
+			TreeMap<Integer, String> rowWrites = null;
+			int rowIndex = -1;
+			int columnIndex = -1;
+
+			while (reader.hasNext()) {
+				XMLEvent event = reader.nextEvent();
+
+				if (event.isStartElement()) {
+					StartElement start = event.asStartElement();
+					String name = start.getName().getLocalPart();
+
+					if (name.equals(SHEET_DATA)) {
+						isSheetData = true;
+						prefix = start.getName().getPrefix();
+						namespace = start.getName().getNamespaceURI();
+					} else if (isSheetData && !isRow && name.equals(ROW)) {
+						String reference = getAttribute(start, "r");
+						rowIndex = reference == null ? rowIndex + 1 : Integer.parseInt(reference) - 1;
+						writeRows(rowIndex);
+						rowWrites = writes.remove(rowIndex);
+						columnIndex = -1;
+						isRow = true;
+
+						// inserted rows and cells are referenced, so are the following ones
+						event = withAttribute(start, "r", String.valueOf(rowIndex + 1));
+					} else if (isRow && name.equals(CELL)) {
+						String reference = getAttribute(start, "r");
+						columnIndex = reference == null ? columnIndex + 1 : new CellReference(reference).getCol();
+						if (rowWrites != null) {
+							writeCells(rowIndex, rowWrites, columnIndex);
+							String value = rowWrites.remove(columnIndex);
+							if (value != null) {
+								replaceCell(start, rowIndex, columnIndex, value);
+								continue;
+							}
+						}
+						event = withAttribute(start, "r", new CellReference(rowIndex, columnIndex).formatAsString());
+					}
+				} else if (event.isEndElement()) {
+					String name = event.asEndElement().getName().getLocalPart();
+
+					if (isRow && name.equals(ROW)) {
+						if (rowWrites != null)
+							writeCells(rowIndex, rowWrites, Integer.MAX_VALUE);
+						rowWrites = null;
+						isRow = false;
+					} else if (isSheetData && name.equals(SHEET_DATA)) {
+						writeRows(Integer.MAX_VALUE);
+						isSheetData = false;
+					}
+				}
+				writer.add(event);
+			}
+			writer.flush();
+		}
+
+		/**
+		 * writes pending rows before the row index
+		 */
+		private void writeRows(int rowIndex) throws XMLStreamException {
+			while (!writes.isEmpty() && writes.firstKey() < rowIndex) {
+				Map.Entry<Integer, TreeMap<Integer, String>> row = writes.pollFirstEntry();
+				List<Attribute> attributes = new ArrayList<Attribute>();
+				attributes.add(events.createAttribute("r", String.valueOf(row.getKey() + 1)));
+				writer.add(events.createStartElement(prefix, namespace, ROW, attributes.iterator(), null));
+				writeCells(row.getKey(), row.getValue(), Integer.MAX_VALUE);
+				writer.add(events.createEndElement(prefix, namespace, ROW));
+			}
+		}
+
+		/**
+		 * writes pending cells of the row before the column index
+		 */
+		private void writeCells(int rowIndex, TreeMap<Integer, String> rowWrites, int columnIndex)
+				throws XMLStreamException {
+			while (!rowWrites.isEmpty() && rowWrites.firstKey() < columnIndex) {
+				Map.Entry<Integer, String> cell = rowWrites.pollFirstEntry();
+				writeCell(rowIndex, cell.getKey(), cell.getValue(), null, null);
+			}
+		}
+
+		/**
+		 * replaces the cell at the reader with the value, keeping style and formula
+		 */
+		private void replaceCell(StartElement start, int rowIndex, int columnIndex, String value)
+				throws XMLStreamException {
+			List<XMLEvent> formula = null;
+			boolean isFormula = false;
+			int depth = 1;
+			while (depth > 0) {
+				XMLEvent event = reader.nextEvent();
+				if (event.isStartElement()) {
+					depth++;
+					if (depth == 2 && event.asStartElement().getName().getLocalPart().equals(FORMULA)) {
+						formula = new ArrayList<XMLEvent>();
+						isFormula = true;
+					}
+				}
+
+				// formula element is kept as is, value elements are replaced
+				if (isFormula)
+					formula.add(event);
+
+				if (event.isEndElement()) {
+					if (depth == 2)
+						isFormula = false;
+					depth--;
+				}
+			}
+			writeCell(rowIndex, columnIndex, value, getAttribute(start, "s"), formula);
+		}
+
+		private void writeCell(int rowIndex, int columnIndex, String value, String style, List<XMLEvent> formula)
+				throws XMLStreamException {
+			List<Attribute> attributes = new ArrayList<Attribute>();
+			attributes.add(events.createAttribute("r", new CellReference(rowIndex, columnIndex).formatAsString()));
+			if (style != null)
+				attributes.add(events.createAttribute("s", style));
+			attributes.add(events.createAttribute("t", formula == null ? "inlineStr" : "str"));
+			writer.add(events.createStartElement(prefix, namespace, CELL, attributes.iterator(), null));
+
+			if (formula == null) {
+				List<Attribute> space = new ArrayList<Attribute>();
+				space.add(events.createAttribute("xml", XMLConstants.XML_NS_URI, "space", "preserve"));
+				writer.add(events.createStartElement(prefix, namespace, "is", null, null));
+				writer.add(events.createStartElement(prefix, namespace, "t", space.iterator(), null));
+				writer.add(events.createCharacters(value));
+				writer.add(events.createEndElement(prefix, namespace, "t"));
+				writer.add(events.createEndElement(prefix, namespace, "is"));
+			} else {
+				for (XMLEvent event : formula)
+					writer.add(event);
+				writer.add(events.createStartElement(prefix, namespace, "v", null, null));
+				writer.add(events.createCharacters(value));
+				writer.add(events.createEndElement(prefix, namespace, "v"));
+			}
+			writer.add(events.createEndElement(prefix, namespace, CELL));
+		}
+
+		private static String getAttribute(StartElement start, String name) {
+			Attribute attribute = start.getAttributeByName(new QName(name));
+			return attribute == null ? null : attribute.getValue();
+		}
+
+		/**
+		 * sets attribute on start element, keeping the other attributes
+		 */
+		@SuppressWarnings("unchecked")
+		private StartElement withAttribute(StartElement start, String name, String value) {
+			List<Attribute> attributes = new ArrayList<Attribute>();
+			Iterator<Attribute> iterator = start.getAttributes();
+			while (iterator.hasNext()) {
+				Attribute attribute = iterator.next();
+				if (!attribute.getName().equals(new QName(name)))
+					attributes.add(attribute);
+			}
+			attributes.add(events.createAttribute(name, value));
+			return events.createStartElement(start.getName(), attributes.iterator(), start.getNamespaces());
+		}
+	}
+}
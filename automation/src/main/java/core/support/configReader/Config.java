@@ -34,6 +34,9 @@ public class Config {
 
 	public static String RESOURCE_PATH = PropertiesReader.getLocalResourcePath();
 
+	// config and profile values from resource path, loaded once
+	private static volatile LayeredConfig configSnapshot = null;
+
 	/**
 	 * gets property value based on key from maven or properties file order: maven
 	 * Then properties
@@ -104,8 +107,33 @@ public class Config {
 	 */
 	public static void loadConfig(String testId) {
 
-		Map<String, Object> config = loadConfigProperties();
-		TestObject.getTestInfo(testId).config.putAll(config);
+		// empty config layer falls through to the shared snapshot, values are not copied
+		Map<String, Object> config = TestObject.getTestInfo(testId).config;
+		if (config instanceof LayeredConfig && config.isEmpty())
+			((LayeredConfig) config).setParent(getConfigSnapshot());
+		else
+			config.putAll(getConfigSnapshot());
+	}
+
+	/**
+	 * gets config and profile values, parsed once per run. the snapshot is read
+	 * only, test config layers store their own values on top of it
+	 * 
+	 * @return
+	 */
+	public static Map<String, Object> getConfigSnapshot() {
+		LayeredConfig snapshot = configSnapshot;
+		if (snapshot != null)
+			return snapshot;
+
+		synchronized (Config.class) {
+			if (configSnapshot == null) {
+				snapshot = new LayeredConfig();
+				snapshot.putAll(loadConfigProperties());
+				configSnapshot = snapshot.freeze();
+			}
+			return configSnapshot;
+		}
 	}
 
 	/**
@@ -289,7 +317,43 @@ public class Config {
 	 * @return string value of key
 	 */
 	public static String getValue(String key, boolean isFailable) {
+		return getConfigValue(key, isFailable).value;
+	}
+
+	// missing value returned by getConfigValue
+	private static final LayeredConfig.ConfigValue EMPTY_VALUE = new LayeredConfig.ConfigValue(StringUtils.EMPTY, -1);
+
+	/**
+	 * gets resolved config value. cached per config layer, including missing keys
+	 * 
+	 * @param key
+	 * @param isFailable
+	 * @return value, empty string if missing
+	 */
+	private static LayeredConfig.ConfigValue getConfigValue(String key, boolean isFailable) {
+		TestObject test = TestObject.getTestInfo();
+		if (!(test.config instanceof LayeredConfig))
+			return new LayeredConfig.ConfigValue(getMapValue(key, isFailable), -1);
+
+		LayeredConfig.ConfigValue value = ((LayeredConfig) test.config).getConfigValue(key);
+		if (!value.isMissing())
+			return value;
+
+		if (isFailable)
+			Helper.assertFalse("value not found, default empty: " + key);
+
+		// keep track of missing config variables
+		if (!value.isMissingTracked) {
+			value.isMissingTracked = true;
+			test.missingConfigVars.add(key);
+		}
+		return EMPTY_VALUE;
+	}
 
+	/**
+	 * returns config value from config map that is not layered
+	 */
+	private static String getMapValue(String key, boolean isFailable) {
 		Object value = TestObject.getTestInfo().config.get(key.trim());
 		if(value == null) 
 				value = MavenReader.getStringProperty(key);
@@ -396,13 +460,13 @@ public class Config {
 	 * @return the boolean value of key from properties
 	 */
 	public static Boolean getBooleanValue(String key, boolean isFailable) {
-		String value = getValue(key, isFailable);
-		if (value.isEmpty()) {
+		LayeredConfig.ConfigValue value = getConfigValue(key, isFailable);
+		if (value.value.isEmpty()) {
 			if (isFailable)
 				Helper.assertFalse("value not found: " + key);
 			return false;
 		}
-		return Boolean.parseBoolean(value);
+		return value.getBoolean();
 	}
 
 	/**
@@ -436,13 +500,13 @@ public class Config {
 	 * @return returns the integer value of key from properties
 	 */
 	public static int getIntValue(String key, boolean isFailable) {
-		String value = getValue(key, isFailable);
-		if (value.isEmpty()) {
+		LayeredConfig.ConfigValue value = getConfigValue(key, isFailable);
+		if (value.value.isEmpty()) {
 			if (isFailable)
 				Helper.assertFalse("value not found: " + key);
 			return -1;
 		}
-		return Integer.valueOf(value);
+		return value.getInt();
 	}
 
 	/**
@@ -462,13 +526,13 @@ public class Config {
 	 * @return the double value of key from properties
 	 */
 	public static double getDoubleValue(String key, boolean isFailable) {
-		String value = getValue(key, isFailable);
-		if (value.isEmpty()) {
+		LayeredConfig.ConfigValue value = getConfigValue(key, isFailable);
+		if (value.value.isEmpty()) {
 			if (isFailable)
 				Helper.assertFalse("value not found: " + key);
 			return -1;
 		}
-		return Double.valueOf(value);
+		return value.getDouble();
 	}
 
 	/**
@@ -0,0 +1,249 @@
+package core.support.configReader;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * config map layered on top of a parent config. eg. suite -> test class ->
+ * test. the layer stores its own values only, lookups fall through to the
+ * parent. writes stay in the layer and do not change the parent. values the
+ * layer does not override reflect the current parent value
+ */
+public class LayeredConfig extends AbstractMap<String, Object> {
+
+	// marks keys removed in this layer that are set in a parent layer
+	private static final Object REMOVED = new Object();
+
+	private final Map<String, Object> values = new ConcurrentHashMap<String, Object>();
+	private volatile Map<String, Object> parent;
+	private volatile boolean hasRemovedKeys = false;
+
+	// resolved values read through this layer, including absent keys. entries are
+	// stale once this or a parent layer is written
+	private final Map<String, ConfigValue> resolved = new ConcurrentHashMap<String, ConfigValue>();
+	private final AtomicLong version = new AtomicLong();
+	private volatile boolean isFrozen = false;
+
+	public LayeredConfig() {
+		this(null);
+	}
+
+	/**
+	 * @param parent config to fall through to, null for root layer
+	 */
+	public LayeredConfig(Map<String, Object> parent) {
+		this.parent = parent;
+	}
+
+	@Override
+	public Object get(Object key) {
+		Object value = values.get(key);
+		if (value == REMOVED)
+			return null;
+		if (value != null || parent == null)
+			return value;
+		return parent.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * makes the layer read only. layers on top of it can still be written
+	 * 
+	 * @return
+	 */
+	public LayeredConfig freeze() {
+		isFrozen = true;
+		return this;
+	}
+
+	/**
+	 * sets parent of an empty layer
+	 * 
+	 * @param parent
+	 */
+	void setParent(Map<String, Object> parent) {
+		checkWritable();
+		this.parent = parent;
+		version.incrementAndGet();
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		checkWritable();
+		Object previous = get(key);
+		values.put(key, value);
+		version.incrementAndGet();
+		return previous;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> map) {
+		checkWritable();
+		values.putAll(map);
+		version.incrementAndGet();
+	}
+
+	@Override
+	public Object remove(Object key) {
+		checkWritable();
+		Object previous = get(key);
+		if (parent != null && parent.containsKey(key)) {
+			values.put((String) key, REMOVED);
+			hasRemovedKeys = true;
+		} else
+			values.remove(key);
+		version.incrementAndGet();
+		return previous;
+	}
+
+	/**
+	 * removes all values, including values from parent layers
+	 */
+	@Override
+	public void clear() {
+		checkWritable();
+		parent = null;
+		values.clear();
+		resolved.clear();
+		hasRemovedKeys = false;
+		version.incrementAndGet();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		if (hasRemovedKeys)
+			return entrySet().isEmpty();
+		return values.isEmpty() && (parent == null || parent.isEmpty());
+	}
+
+	@Override
+	public int size() {
+		return entrySet().size();
+	}
+
+	/**
+	 * merged snapshot of all layers. changes to the set are not written back
+	 */
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Deque<Map<String, Object>> layers = new ArrayDeque<Map<String, Object>>();
+		Map<String, Object> layer = this;
+		while (layer != null) {
+			if (layer instanceof LayeredConfig) {
+				layers.push(((LayeredConfig) layer).values);
+				layer = ((LayeredConfig) layer).parent;
+			} else {
+				layers.push(layer);
+				layer = null;
+			}
+		}
+
+		Map<String, Object> merged = new LinkedHashMap<String, Object>();
+		for (Map<String, Object> values : layers) {
+			for (Entry<String, Object> entry : values.entrySet()) {
+				if (entry.getValue() == REMOVED)
+					merged.remove(entry.getKey());
+				else
+					merged.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return merged.entrySet();
+	}
+
+	private void checkWritable() {
+		if (isFrozen)
+			throw new UnsupportedOperationException("config layer is read only");
+	}
+
+	/**
+	 * gets resolved value of key from config, else from maven property. values
+	 * and absent keys are cached until this or a parent layer is written
+	 * 
+	 * @param key
+	 * @return
+	 */
+	ConfigValue getConfigValue(String key) {
+		long currentVersion = getChainVersion();
+		ConfigValue value = resolved.get(key);
+		if (value != null && value.version == currentVersion)
+			return value;
+
+		Object object = get(key.trim());
+		if (object == null)
+			object = MavenReader.getStringProperty(key);
+		value = new ConfigValue(object == null ? null : object.toString(), currentVersion);
+
+		// mutable values are not cached
+		if (currentVersion != -1 && (object == null || object instanceof String || object instanceof Number
+				|| object instanceof Boolean))
+			resolved.put(key, value);
+		return value;
+	}
+
+	/**
+	 * sum of versions of this and parent layers. changes on any write
+	 * 
+	 * @return -1 if a parent is not a layered config
+	 */
+	private long getChainVersion() {
+		long chainVersion = 0;
+		Map<String, Object> layer = this;
+		while (layer != null) {
+			if (!(layer instanceof LayeredConfig))
+				return -1;
+			chainVersion += ((LayeredConfig) layer).version.get();
+			layer = ((LayeredConfig) layer).parent;
+		}
+		return chainVersion;
+	}
+
+	/**
+	 * resolved config value with typed values parsed once
+	 */
+	static class ConfigValue {
+		final String value; // null if not set
+		final long version;
+		boolean isMissingTracked = false;
+
+		private Boolean booleanValue;
+		private Integer intValue;
+		private Double doubleValue;
+
+		ConfigValue(String value, long version) {
+			this.value = value;
+			this.version = version;
+		}
+
+		boolean isMissing() {
+			return value == null;
+		}
+
+		boolean getBoolean() {
+			if (booleanValue == null)
+				booleanValue = Boolean.parseBoolean(value);
+			return booleanValue;
+		}
+
+		int getInt() {
+			if (intValue == null)
+				intValue = Integer.valueOf(value);
+			return intValue;
+		}
+
+		double getDouble() {
+			if (doubleValue == null)
+				doubleValue = Double.valueOf(value);
+			return doubleValue;
+		}
+	}
+}
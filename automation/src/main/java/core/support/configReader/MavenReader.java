@@ -25,12 +25,10 @@ public class MavenReader {
 	 * @return string value of property value
 	 */
 	public static String getStringProperty(String key) {
-		try {
-			return System.getProperty(key).replace("\"", "").trim();
-		} catch (Exception e) {
-			e.getMessage();
-		}
-		return null;
+		String value = System.getProperty(key);
+		if (value == null)
+			return null;
+		return value.replace("\"", "").trim();
 	}
 
 	/**
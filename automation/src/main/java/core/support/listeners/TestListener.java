@@ -30,9 +30,18 @@ import com.google.common.base.Joiner;
 
 import core.apiCore.ServiceManager;
 import core.apiCore.driver.ApiTestDriver;
+import core.apiCore.helpers.AuthTokenCache;
+import core.apiCore.helpers.HttpConnectionPool;
+import core.apiCore.helpers.ServiceExecutor;
+import core.apiCore.helpers.ServiceStub;
+import core.apiCore.helpers.SshTunnelManager;
 import core.helpers.Helper;
 import core.helpers.ScreenRecorderHelper;
+import core.helpers.databaseHelper.MongoDbHelper;
+import core.helpers.emailHelper.EmailHelper;
+import core.helpers.excelHelper.ExcelHelper;
 import core.support.configReader.Config;
+import core.support.logger.AsyncLog;
 import core.support.logger.ExtentManager;
 import core.support.logger.TestLog;
 import core.support.objects.DeviceManager;
@@ -178,6 +187,9 @@ public class TestListener implements ITestListener, IClassListener, ISuiteListen
 		
 		setTestClassName(iTestResult);
 		ScreenRecorderHelper.startRecording();
+
+		// test run again by retry analyzer is no longer archived
+		TestObject.restoreTest(TestObject.getTestInfo());
 	}
 
 	@Override
@@ -213,6 +225,12 @@ public class TestListener implements ITestListener, IClassListener, ISuiteListen
 		
 		TestLog.Then("Test is finished successfully");
 		TestLog.printBatchLogsToConsole();
+
+		// write completed report parts
+		ExtentManager.completeReportTest(TestObject.getTestInfo());
+
+		// release logs and responses of older finished tests
+		TestObject.archiveTest(TestObject.getTestInfo());
 	}
 	
 	@Override
@@ -253,9 +271,12 @@ public class TestListener implements ITestListener, IClassListener, ISuiteListen
 		
 		// quit current driver after failure
 		Helper.quitCurrentDriver();
-		
-	
-		
+
+		// write completed report parts
+		ExtentManager.completeReportTest(TestObject.getTestInfo());
+
+		// release logs and responses of older finished tests
+		TestObject.archiveTest(TestObject.getTestInfo());
 	}
 
 	@Override
@@ -284,6 +305,16 @@ public class TestListener implements ITestListener, IClassListener, ISuiteListen
 		
 		// quit current driver after failure
 		Helper.quitCurrentDriver();
+
+		// test is run again, report and test object are still in use
+		if (iTestResult.wasRetried())
+			return;
+
+		// write completed report parts
+		ExtentManager.completeReportTest(TestObject.getTestInfo());
+
+		// release logs and responses of older finished tests
+		TestObject.archiveTest(TestObject.getTestInfo());
 	}
 	
 	@SuppressWarnings("deprecation")
@@ -462,12 +493,32 @@ public class TestListener implements ITestListener, IClassListener, ISuiteListen
 
 		// print list of missing config variables
 		Config.printMissingConfigVariables();
+
+		// close shared ssh tunnels, http pools, executors, stub server, database clients and mailboxes
+		SshTunnelManager.disconnectAll();
+		HttpConnectionPool.shutdown();
+		ServiceExecutor.shutdown();
+		ServiceStub.shutdown();
+		AuthTokenCache.clear();
+		MongoDbHelper.closeClients();
+		EmailHelper.closeMailboxes();
+
+		// write pending excel and csv cell updates
+		Helper.csv.flush();
+		try {
+			ExcelHelper.flush();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
 		
 		// rerun failed tests if enabled
 		runFailedTests(suite);
 		
 		// check autonomx maven version update
 		TestLog.checkLatestAutonomxMavenVersion();
+
+		// write pending console logs
+		AsyncLog.flush();
 	}
 
 	private String getSuiteName(String suitename) {
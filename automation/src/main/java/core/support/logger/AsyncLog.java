@@ -0,0 +1,215 @@
+package core.support.logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+
+import com.aventstack.extentreports.ExtentTest;
+
+import core.support.configReader.Config;
+
+/**
+ * asynchronous console logging and report writes. log events and report
+ * writes are published to a lock free ring buffer and run by a single consumer
+ * thread in publish order, keeping the order of logs and report nodes per
+ * test. test threads wait only when the buffer is full
+ */
+public class AsyncLog {
+
+	public static final String LOG_ASYNC_ENABLED = "console.async.enabled"; // default true
+	public static final String LOG_ASYNC_BUFFER_SIZE = "console.async.buffer.size";
+
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+	private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static volatile RingBuffer buffer = null;
+
+	/**
+	 * logs to logger on the log consumer thread. the log is formatted on the
+	 * consumer thread
+	 *
+	 * @param logger
+	 * @param log
+	 */
+	public static void log(Logger logger, LogObject log) {
+		if (!isEnabled()) {
+			logger.log(log.priority, log.getValue());
+			return;
+		}
+		getBuffer().publish(new LogEvent(logger, log, null));
+	}
+
+	/**
+	 * runs report write on the log consumer thread. writes hold the report lock,
+	 * so they do not overlap the report flush
+	 *
+	 * @param write
+	 */
+	public static void report(Runnable write) {
+		if (!isEnabled()) {
+			synchronized (ExtentManager.REPORT_LOCK) {
+				write.run();
+			}
+			return;
+		}
+		getBuffer().publish(new LogEvent(null, null, write));
+	}
+
+	/**
+	 * creates report node on the log consumer thread
+	 *
+	 * @param node
+	 * @return node, completed once the node is created
+	 */
+	public static CompletableFuture<ExtentTest> reportNode(Supplier<ExtentTest> node) {
+		CompletableFuture<ExtentTest> future = new CompletableFuture<ExtentTest>();
+		report(() -> {
+			try {
+				future.complete(node.get());
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+				throw e;
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * waits until all logs and report writes published so far are written
+	 */
+	public static void flush() {
+		RingBuffer current = buffer;
+		if (current != null)
+			current.flush();
+	}
+
+	private static boolean isEnabled() {
+		return !Config.getValue(LOG_ASYNC_ENABLED).equals("false");
+	}
+
+	private static RingBuffer getBuffer() {
+		RingBuffer current = buffer;
+		if (current != null)
+			return current;
+
+		synchronized (AsyncLog.class) {
+			if (buffer == null) {
+				int size = Config.getIntValue(LOG_ASYNC_BUFFER_SIZE);
+				buffer = new RingBuffer(size <= 0 ? DEFAULT_BUFFER_SIZE : size);
+				Runtime.getRuntime().addShutdownHook(new Thread(AsyncLog::flush, "async-log-flush"));
+			}
+			return buffer;
+		}
+	}
+
+	/**
+	 * log or report write. thread name and time of the producer are kept for the
+	 * log layout
+	 */
+	private static class LogEvent {
+		final Logger logger;
+		final LogObject log;
+		final Runnable write;
+		final String threadName;
+		final long timestamp;
+
+		LogEvent(Logger logger, LogObject log, Runnable write) {
+			this.logger = logger;
+			this.log = log;
+			this.write = write;
+			this.threadName = Thread.currentThread().getName();
+			this.timestamp = System.currentTimeMillis();
+		}
+
+		void run() {
+			if (write != null) {
+				synchronized (ExtentManager.REPORT_LOCK) {
+					write.run();
+				}
+				return;
+			}
+
+			Level level = Level.toLevel(log.priority.toInt());
+			if (logger.isEnabledFor(level))
+				logger.callAppenders(new LoggingEvent(AsyncLog.class.getName(), logger, timestamp, level,
+						log.getValue(), threadName, null, null, null, null));
+		}
+	}
+
+	/**
+	 * multi producer, single consumer ring buffer. producers claim a sequence and
+	 * write the event to its slot. the consumer reads slots in sequence order and
+	 * clears them. empty slot marks an event not yet published
+	 */
+	private static class RingBuffer {
+		private final AtomicReferenceArray<LogEvent> events;
+		private final int mask;
+		private final AtomicLong claimed = new AtomicLong();
+		private final AtomicLong consumed = new AtomicLong();
+		private final Thread consumer;
+		private volatile boolean isConsumerIdle = false;
+
+		RingBuffer(int size) {
+			// capacity is rounded up to power of 2
+			int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+			events = new AtomicReferenceArray<LogEvent>(capacity);
+			mask = capacity - 1;
+
+			consumer = new Thread(this::consume, "async-log");
+			consumer.setDaemon(true);
+			consumer.start();
+		}
+
+		void publish(LogEvent event) {
+			long sequence = claimed.getAndIncrement();
+			while (sequence - consumed.get() >= events.length())
+				LockSupport.parkNanos(WAIT_NANOS);
+
+			events.set((int) (sequence & mask), event);
+			if (isConsumerIdle)
+				LockSupport.unpark(consumer);
+		}
+
+		void flush() {
+			if (Thread.currentThread() == consumer)
+				return;
+
+			long target = claimed.get();
+			while (consumed.get() < target && consumer.isAlive()) {
+				LockSupport.unpark(consumer);
+				LockSupport.parkNanos(WAIT_NANOS);
+			}
+		}
+
+		private void consume() {
+			long sequence = consumed.get();
+			while (true) {
+				int index = (int) (sequence & mask);
+				LogEvent event = events.get(index);
+				if (event == null) {
+					isConsumerIdle = true;
+					if (events.get(index) == null)
+						LockSupport.parkNanos(IDLE_NANOS);
+					isConsumerIdle = false;
+					continue;
+				}
+
+				events.set(index, null);
+				try {
+					event.run();
+				} catch (Throwable e) {
+					e.printStackTrace();
+				}
+				consumed.set(++sequence);
+			}
+		}
+	}
+}
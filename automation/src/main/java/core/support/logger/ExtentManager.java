@@ -8,10 +8,22 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
@@ -52,12 +64,35 @@ public class ExtentManager {
 	public static final String KLOV_REPORT_TYPE = "klov";
 	public static final String KLOV_SERVER_URL = "klov.server.url";
 	public static final String KLOV_MONGODB_URL = "klov.mongodb.url";
+	public static final String REPORT_FLUSH_INTERVAL_SECONDS = "report.flush.interval.seconds";
+	public static final String REPORT_ROLLOVER_TEST_COUNT = "report.rollover.test.count";
 
 	// list of classes (features)
 	public static Map<String, ExtentTest> classList = new HashMap<String, ExtentTest>();
 
 	private static ExtentReports extent;
 
+	// html report parts when report rollover is enabled. main report links the parts
+	private static List<String> reportParts = new ArrayList<String>();
+	private static int reportTestCount = 0;
+
+	// running test count per report. completed report parts are written and released
+	private static Map<ExtentReports, AtomicInteger> activeTests = new ConcurrentHashMap<ExtentReports, AtomicInteger>();
+
+	// tests per report part. report nodes of the tests are released with the part
+	private static Map<ExtentReports, List<TestObject>> reportTests = new ConcurrentHashMap<ExtentReports, List<TestObject>>();
+
+	// guards the report model: node creation and report flush
+	static final Object REPORT_LOCK = new Object();
+	private static AtomicLong lastFlushMillis = new AtomicLong(System.currentTimeMillis());
+
+	// periodic flush runs on the report flush thread, one at a time
+	private static ExecutorService flushExecutor = null;
+	private static AtomicBoolean isFlushPending = new AtomicBoolean();
+
+	// scenario nodes without sub steps of tests that are compacted
+	private static Queue<ExtentTest> emptyTestNodes = new ConcurrentLinkedQueue<ExtentTest>();
+
 	public static String REPORT_DEFAULT_NAME = "extent";
 	public static ExtentKlovReporter klovReporter;
 
@@ -65,9 +100,13 @@ public class ExtentManager {
 	public static String TEST_OUTPUT_FULL_PATH = Helper.getFullPath(TEST_OUTPUT_PATH);
 
 	public synchronized static ExtentReports getReporter() {
-		if (extent == null)
-			createInstance(getReportHTMLFullPath());
-
+		if (extent == null) {
+			if (Config.getIntValue(REPORT_ROLLOVER_TEST_COUNT) > 0
+					&& Config.getValue(REPORT_TYPE).equals(HTML_REPORT_TYPE))
+				createReportPart();
+			else
+				createInstance(getReportHTMLFullPath());
+		}
 		return extent;
 	}
 
@@ -173,24 +212,208 @@ public class ExtentManager {
 		if (className.equals(ServiceManager.SERVICE_TEST_RUNNER_ID))
 			return;
 
-		if (!classList.containsKey(className)) {
-			String testParent = className.substring(className.lastIndexOf('.') + 1).trim();
-			testParent = parseTestName(testParent);
-			ExtentTest feature = extent.createTest(Feature.class, testParent);
-			classList.put(className, feature);
-			TestObject.getTestInfo().testFeature = feature;
-		}
+		// feature and scenario are created in the same report part
+		boolean isNewTest = false;
+		synchronized (ExtentManager.class) {
+			if (TestObject.getTestInfo().runCount == 0)
+				startReportTest(TestObject.getTestInfo());
+
+			if (!classList.containsKey(className)) {
+				String testParent = className.substring(className.lastIndexOf('.') + 1).trim();
+				testParent = parseTestName(testParent);
+				ExtentTest feature;
+				synchronized (REPORT_LOCK) {
+					feature = extent.createTest(Feature.class, testParent);
+				}
+				classList.put(className, feature);
+				TestObject.getTestInfo().testFeature = feature;
+			}
 
-		// will run once every test
-		// initializes test report
-		if (TestObject.getTestInfo().runCount == 0) {
-			TestObject.getTestInfo().incremenetRunCount();
-			String testChild = TestObject.getTestInfo().testName;
-			testChild = parseTestName(testChild);
-			ExtentTest scenario = classList.get(className).createNode(Scenario.class, testChild);
-			TestObject.getTestInfo().withTestScenario(scenario);
+			// will run once every test
+			// initializes test report
+			if (TestObject.getTestInfo().runCount == 0) {
+				TestObject.getTestInfo().incremenetRunCount();
+				String testChild = TestObject.getTestInfo().testName;
+				testChild = parseTestName(testChild);
+				ExtentTest scenario;
+				synchronized (REPORT_LOCK) {
+					scenario = classList.get(className).createNode(Scenario.class, testChild);
+				}
+				TestObject.getTestInfo().withTestScenario(scenario);
+				isNewTest = true;
+			}
+		}
+		if (isNewTest)
 			TestLog.Background(TestObject.getTestInfo().testName + " initialized successfully");
+	}
+
+	/**
+	 * tracks the test in the current report. starts a new report part if the
+	 * current part has reached the rollover test count
+	 * 
+	 * @param test
+	 */
+	private static synchronized void startReportTest(TestObject test) {
+		if (!reportParts.isEmpty() && reportTestCount >= Config.getIntValue(REPORT_ROLLOVER_TEST_COUNT)) {
+			ExtentReports previous = extent;
+			createReportPart();
+
+			// write previous part if all its tests are complete
+			AtomicInteger active = activeTests.get(previous);
+			if (active == null || active.get() == 0) {
+				activeTests.remove(previous);
+				releaseReportPart(previous);
+			}
 		}
+		reportTestCount++;
+		test.testReport = extent;
+		activeTests.computeIfAbsent(extent, value -> new AtomicInteger()).incrementAndGet();
+		if (!reportParts.isEmpty())
+			reportTests.computeIfAbsent(extent, value -> new ArrayList<TestObject>()).add(test);
+	}
+
+	/**
+	 * called when a test is complete. writes the report part of the test once all
+	 * its tests are complete, so the part can be released. writes the current
+	 * report on the report flush thread if flush interval has passed
+	 * 
+	 * @param test
+	 */
+	public static void completeReportTest(TestObject test) {
+		ExtentReports report = test.testReport;
+		test.testReport = null;
+		if (report != null && isReportPartComplete(report))
+			releaseReportPart(report);
+
+		int interval = Config.getIntValue(REPORT_FLUSH_INTERVAL_SECONDS);
+		if (interval <= 0 || extent == null)
+			return;
+		long last = lastFlushMillis.get();
+		long now = System.currentTimeMillis();
+		if (now - last >= TimeUnit.SECONDS.toMillis(interval) && lastFlushMillis.compareAndSet(last, now))
+			flushReportAsync(getReporter());
+	}
+
+	/**
+	 * writes the report on the report flush thread, so the test thread does not
+	 * wait for the report to render. skipped if a flush is already pending
+	 * 
+	 * @param report
+	 */
+	private static void flushReportAsync(ExtentReports report) {
+		if (!isFlushPending.compareAndSet(false, true))
+			return;
+		getFlushExecutor().execute(() -> {
+			try {
+				flushReport(report);
+			} finally {
+				isFlushPending.set(false);
+			}
+		});
+	}
+
+	private static synchronized ExecutorService getFlushExecutor() {
+		if (flushExecutor == null) {
+			flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "report-flush");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return flushExecutor;
+	}
+
+	/**
+	 * keeps scenario node of a test without sub steps, when the test is compacted.
+	 * removed from the report with the other empty test nodes. not kept with
+	 * report rollover, report parts are written and released as they complete
+	 * 
+	 * @param scenario
+	 */
+	public static synchronized void addEmptyTestNode(ExtentTest scenario) {
+		if (reportParts.isEmpty())
+			emptyTestNodes.add(scenario);
+	}
+
+	private static synchronized boolean isReportPartComplete(ExtentReports report) {
+		AtomicInteger active = activeTests.get(report);
+		if (active == null || active.decrementAndGet() > 0 || report == extent)
+			return false;
+		activeTests.remove(report);
+		return true;
+	}
+
+	/**
+	 * starts a new html report part and updates the main report with links to the
+	 * parts
+	 */
+	private static synchronized void createReportPart() {
+		String fileName = getReportRootFullPath() + getReportName() + "_part" + (reportParts.size() + 1) + ".html";
+		reportParts.add(fileName);
+		createInstance(fileName);
+		classList = new HashMap<String, ExtentTest>();
+		reportTestCount = 0;
+		writeReportIndex();
+	}
+
+	/**
+	 * writes the main html report as list of links to report parts
+	 */
+	private static void writeReportIndex() {
+		StringBuilder index = new StringBuilder();
+		index.append("<html><head><meta charset=\"utf-8\"><title>").append(getReportName())
+				.append("</title></head><body><h3>").append(getReportName()).append("</h3><ul>");
+		for (int i = 0; i < reportParts.size(); i++) {
+			String part = new File(reportParts.get(i)).getName();
+			index.append("<li><a href=\"").append(part).append("\">part ").append(i + 1).append("</a></li>");
+		}
+		index.append("</ul></body></html>");
+
+		try {
+			FileUtils.writeStringToFile(new File(getReportHTMLFullPath()), index.toString(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * writes the completed report part and drops the report nodes held by its
+	 * tests, so the part can be garbage collected
+	 * 
+	 * @param report
+	 */
+	private static void releaseReportPart(ExtentReports report) {
+		flushReport(report);
+
+		List<TestObject> tests = reportTests.remove(report);
+		if (tests == null)
+			return;
+		for (TestObject test : tests) {
+			test.testFeature = null;
+			test.testScenerio = null;
+			test.testSteps = new ArrayList<ExtentTest>();
+			test.testReport = null;
+		}
+	}
+
+	/**
+	 * writes the report. tests still running are written as is. report writes
+	 * published so far are applied first, node creation waits for the flush
+	 * 
+	 * @param report
+	 */
+	private static void flushReport(ExtentReports report) {
+		AsyncLog.flush();
+		String error = null;
+		synchronized (REPORT_LOCK) {
+			try {
+				report.flush();
+			} catch (Exception e) {
+				error = e.getMessage();
+			}
+		}
+		if (error != null)
+			TestLog.ConsoleLogWarn("test report flush failed: " + error);
 	}
 
 	/**
@@ -262,7 +485,17 @@ public class ExtentManager {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		ExtentManager.getReporter().flush();
+		flushReport(ExtentManager.getReporter());
+
+		// write remaining report parts
+		synchronized (ExtentManager.class) {
+			for (ExtentReports report : activeTests.keySet())
+				if (report != extent)
+					releaseReportPart(report);
+			activeTests.keySet().removeIf(report -> report != extent);
+			if (!reportParts.isEmpty())
+				writeReportIndex();
+		}
 	}
 
 	/**
@@ -307,7 +540,7 @@ public class ExtentManager {
 		// remove all tests with no test substeps. this means, no logging was done for
 		// the test
 		for (Entry<String, TestObject> entry : TestObject.testInfo.entrySet()) {
-			if (entry.getValue().testScenerio != null && entry.getValue().testSubSteps.size() <= 1) {
+			if (entry.getValue().testScenerio != null && entry.getValue().getTestSubStepCount() <= 1) {
 				try {
 					ExtentManager.getReporter().removeTest(entry.getValue().testScenerio);
 				} catch (Exception e) {
@@ -315,6 +548,16 @@ public class ExtentManager {
 				}
 			}
 		}
+
+		// compacted tests no longer hold their scenario node
+		ExtentTest scenario;
+		while ((scenario = emptyTestNodes.poll()) != null) {
+			try {
+				ExtentManager.getReporter().removeTest(scenario);
+			} catch (Exception e) {
+				e.getMessage();
+			}
+		}
 	}
 
 	/**
@@ -1,12 +1,33 @@
 package core.support.logger;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
 import org.apache.log4j.Priority;
 
+import core.helpers.Helper;
+
+/**
+ * console log event. stores message template and a snapshot of the arguments.
+ * formatted and truncated to max length once when the log is written or read.
+ * arguments are released after formatting
+ */
 public class LogObject {
 
-	public String value;
+	private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+			.withZone(ZoneId.systemDefault());
+
 	public Priority priority;
 
+	// formatted value, set when the log is rendered
+	private volatile String value;
+	private long timestamp;
+	private String prefix;
+	private String template;
+	private Object[] args;
+	private int maxLength = -1;
+
 	public LogObject() {
 	}
 
@@ -14,4 +35,68 @@ public class LogObject {
 		this.value = value;
 		this.priority = priority;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @param priority
+	 * @param prefix    prefix added to the message
+	 * @param template  message template, formatted with arguments
+	 * @param args      arguments, values are kept as at the time of the log
+	 * @param maxLength formatted message max length, -1 for no limit
+	 */
+	public LogObject(Priority priority, String prefix, String template, Object[] args, int maxLength) {
+		this.priority = priority;
+		this.timestamp = System.currentTimeMillis();
+		this.prefix = prefix;
+		this.template = template;
+		this.args = snapshot(args);
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * copies arguments. immutable values are kept for number formatting, other
+	 * values are converted to string, as they may change before the log is
+	 * formatted
+	 * 
+	 * @param args
+	 * @return
+	 */
+	private static Object[] snapshot(Object[] args) {
+		if (args == null)
+			return null;
+		Object[] values = new Object[args.length];
+		for (int i = 0; i < args.length; i++) {
+			Object arg = args[i];
+			if (arg == null || arg instanceof String || arg instanceof Boolean || arg instanceof Character
+					|| (arg instanceof Number && arg.getClass().getName().startsWith("java.lang.")))
+				values[i] = arg;
+			else
+				values[i] = String.valueOf(arg);
+		}
+		return values;
+	}
+
+	/**
+	 * @return formatted log value
+	 */
+	public String getValue() {
+		String current = value;
+		if (current != null)
+			return current;
+
+		synchronized (this) {
+			if (value == null)
+				value = render();
+			template = null;
+			args = null;
+			return value;
+		}
+	}
+
+	private String render() {
+		String message = template == null ? "" : template;
+		message = TestLog.formatMessage(message, false, args);
+		if (maxLength != -1)
+			message = TestLog.setMaxLength(message, maxLength);
+		return Helper.stringRemoveLines(TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(timestamp)) + " : " + prefix + message);
+	}
+}
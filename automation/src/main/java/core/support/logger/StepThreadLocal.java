@@ -0,0 +1,63 @@
+package core.support.logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.aventstack.extentreports.ExtentTest;
+
+/**
+ * report step of the test thread. step nodes are created on the async log
+ * consumer thread, the step is resolved on the first lookup
+ */
+public class StepThreadLocal extends ThreadLocal<ExtentTest> {
+	private final ThreadLocal<CompletableFuture<ExtentTest>> pending = new ThreadLocal<CompletableFuture<ExtentTest>>();
+
+	@Override
+	public ExtentTest get() {
+		CompletableFuture<ExtentTest> step = pending.get();
+		if (step != null) {
+			pending.remove();
+			try {
+				super.set(step.join());
+			} catch (CompletionException e) {
+				super.remove();
+			}
+		}
+		return super.get();
+	}
+
+	@Override
+	public void set(ExtentTest step) {
+		pending.remove();
+		super.set(step);
+	}
+
+	@Override
+	public void remove() {
+		pending.remove();
+		super.remove();
+	}
+
+	/**
+	 * sets step node that is being created
+	 *
+	 * @param step
+	 */
+	void setPending(CompletableFuture<ExtentTest> step) {
+		super.remove();
+		pending.set(step);
+	}
+
+	/**
+	 * gets step without waiting for the step node to be created
+	 *
+	 * @return null if step is not set
+	 */
+	CompletableFuture<ExtentTest> getPending() {
+		CompletableFuture<ExtentTest> step = pending.get();
+		if (step != null)
+			return step;
+		ExtentTest current = super.get();
+		return current == null ? null : CompletableFuture.completedFuture(current);
+	}
+}
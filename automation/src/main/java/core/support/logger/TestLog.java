@@ -4,8 +4,11 @@ import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
@@ -22,6 +25,7 @@ import com.aventstack.extentreports.gherkin.model.And;
 import com.aventstack.extentreports.gherkin.model.Background;
 import com.aventstack.extentreports.gherkin.model.But;
 import com.aventstack.extentreports.gherkin.model.Given;
+import com.aventstack.extentreports.gherkin.model.IGherkinFormatterModel;
 import com.aventstack.extentreports.gherkin.model.Then;
 import com.aventstack.extentreports.gherkin.model.When;
 import com.aventstack.extentreports.markuputils.ExtentColor;
@@ -52,6 +56,7 @@ public class TestLog {
 	public static final String IS_LOG_LIMIT = "log.limit.enabled";
 	public static final String LOG_MAX_LIMIT = "log.max.limit.char";
 	public static final String LOG_SKIP_CONSOLE = "console.skip.console.log";
+	public static final String LOG_BATCH_STREAM = "console.batch.stream"; // print batch logs after each test
 
 	
 
@@ -63,6 +68,23 @@ public class TestLog {
 	}
 
 	static marytts.util.data.audio.AudioPlayer player;
+
+	// audio is played one at a time, steps of parallel tests share the player
+	private static final Object AUDIO_LOCK = new Object();
+
+	private static final int MESSAGE_FORMAT_CACHE_SIZE = 256;
+
+	// message formats by pattern, per thread
+	private static final ThreadLocal<Map<String, MessageFormat>> MESSAGE_FORMATS = ThreadLocal
+			.withInitial(() -> new LinkedHashMap<String, MessageFormat>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, MessageFormat> eldest) {
+					return size() > MESSAGE_FORMAT_CACHE_SIZE;
+				}
+			});
+
 	public static final String LOG4JPATH = Config.RESOURCE_PATH + "/log4j.xml";
 
 	
@@ -74,7 +96,7 @@ public class TestLog {
 	 * @param args  additional arguments for logging to be formatted
 	 */
 	public static void ConsoleLogNoLimit(String value, Object... args) {
-		logConsoleMessage(Priority.INFO, formatMessageNoLimit(value, args));
+		logConsoleMessage(Priority.INFO, "", value, false, args);
 	}
 	
 	/**
@@ -84,7 +106,7 @@ public class TestLog {
 	 * @param args  additional arguments for logging to be formatted
 	 */
 	public static void ConsoleLog(String value, Object... args) {
-		logConsoleMessage(Priority.INFO, formatMessage(value, args));
+		logConsoleMessage(Priority.INFO, "", value, true, args);
 	}
 
 	/**
@@ -94,7 +116,7 @@ public class TestLog {
 	 * @param args  additional arguments for logging to be formatted
 	 */
 	public static void ConsoleLogWarn(String value, Object... args) {
-		logConsoleMessage(Priority.WARN, formatMessage(value, args));
+		logConsoleMessage(Priority.WARN, "", value, true, args);
 
 	}
 
@@ -107,7 +129,7 @@ public class TestLog {
 	public static void ConsoleLogDebug(String value, Object... args) {
 		boolean isDebug = Config.getBooleanValue(ENABLE_DEBUG);
 		if (isDebug)
-			logConsoleMessage(Priority.WARN, formatMessage(value, args));
+			logConsoleMessage(Priority.WARN, "", value, true, args);
 
 	}
 
@@ -118,7 +140,7 @@ public class TestLog {
 	 * @param args  additional arguments for logging to be formatted
 	 */
 	public static void ConsoleLogError(String value, Object... args) {
-		logConsoleMessage(Priority.ERROR, formatMessage(value, args));
+		logConsoleMessage(Priority.ERROR, "", value, true, args);
 
 	}
 
@@ -128,7 +150,7 @@ public class TestLog {
 	 * @param value value to log
 	 * @param args  additional arguments for logging to be formatted
 	 */
-	public synchronized static void Background(String value, Object... args) {
+	public static void Background(String value, Object... args) {
 		setTestStep(gherkins.Background, value, args);
 	}
 
@@ -138,8 +160,8 @@ public class TestLog {
 	 * @param value value to log
 	 * @param args  additional arguments for logging to be formatted
 	 */
-	public synchronized static void But(String value, Object... args) {
-		logConsoleMessage(Priority.INFO, "But " + formatMessage(value, args));
+	public static void But(String value, Object... args) {
+		logConsoleMessage(Priority.INFO, "But ", value, true, args);
 		setTestStep(gherkins.But, value, args);
 	}
 
@@ -149,8 +171,8 @@ public class TestLog {
 	 * @param value value to log
 	 * @param args  additional arguments for logging to be formatted
 	 */
-	public synchronized static void Given(String value, Object... args) {
-		logConsoleMessage(Priority.INFO, "Given " + formatMessage(value, args));
+	public static void Given(String value, Object... args) {
+		logConsoleMessage(Priority.INFO, "Given ", value, true, args);
 		setTestStep(gherkins.Given, value, args);
 	}
 
@@ -160,11 +182,11 @@ public class TestLog {
 	 * @param value value to log
 	 * @param args  additional arguments for logging to be formatted
 	 */
-	public synchronized static void When(String value, Object... args) {
-		logConsoleMessage(Priority.INFO, "When " + formatMessage(value, args));
+	public static void When(String value, Object... args) {
+		logConsoleMessage(Priority.INFO, "When ", value, true, args);
 
 		setTestStep(gherkins.When, value, args);
-		playAudio(gherkins.When.name() + " " + formatMessage(value, args));
+		playStepAudio(gherkins.When, value, args);
 	}
 
 	/**
@@ -173,11 +195,11 @@ public class TestLog {
 	 * @param value value to log
 	 * @param args  additional arguments for logging to be formatted
 	 */
-	public synchronized static void And(String value, Object... args) {
-		logConsoleMessage(Priority.INFO, "And " + formatMessage(value, args));
+	public static void And(String value, Object... args) {
+		logConsoleMessage(Priority.INFO, "And ", value, true, args);
 
 		setTestStep(gherkins.And, value, args);
-		playAudio(gherkins.And.name() + " " + formatMessage(value, args));
+		playStepAudio(gherkins.And, value, args);
 	}
 
 	/**
@@ -186,11 +208,11 @@ public class TestLog {
 	 * @param value value to log
 	 * @param args  additional arguments for logging to be formatted
 	 */
-	public synchronized static void Then(String value, Object... args) {
-		logConsoleMessage(Priority.INFO, "Then " + formatMessage(value, args));
+	public static void Then(String value, Object... args) {
+		logConsoleMessage(Priority.INFO, "Then ", value, true, args);
 
 		setTestStep(gherkins.Then, value, args);
-		playAudio(gherkins.Then.name() + " " + formatMessage(value, args));
+		playStepAudio(gherkins.Then, value, args);
 	}
 
 	/**
@@ -201,42 +223,65 @@ public class TestLog {
 	 * @param value        value to log
 	 * @param args         additional arguments for logging to be formatted
 	 */
-	public static synchronized void setTestStep(gherkins gherkinState, String value, Object... args) {
-		ExtentTest testStep = null;
-
-		testState state = TestObject.getTestState(TestObject.getTestInfo().testId);
+	public static void setTestStep(gherkins gherkinState, String value, Object... args) {
+		TestObject test = TestObject.getTestInfo();
+		testState state = TestObject.getTestState(test.testId);
 		if (!state.equals(testState.testMethod))
 			return;
 
+		String message = formatMessage(value, args);
+		ExtentTest scenario = getTestScenario();
+
+		// scenario is released once the report part of the test is written
+		if (scenario == null)
+			return;
+
+		Class<? extends IGherkinFormatterModel> type = null;
+		String name = null;
 		switch (gherkinState) {
 		case Given:
-			testStep = getTestScenario().createNode(Given.class, "Given " + formatMessage(value, args)).pass("");
+			type = Given.class;
+			name = "Given " + message;
 			break;
 		case When:
-			testStep = getTestScenario().createNode(When.class, "When " + formatMessage(value, args)).pass("");
+			type = When.class;
+			name = "When " + message;
 			break;
 		case Then:
-			testStep = getTestScenario().createNode(Then.class, "Then " + formatMessage(value, args)).pass("");
+			type = Then.class;
+			name = "Then " + message;
 			break;
 		case And:
-			testStep = getTestScenario().createNode(And.class, "And " + formatMessage(value, args)).pass("");
+			type = And.class;
+			name = "And " + message;
 			break;
 		case But:
-			testStep = getTestScenario().createNode(But.class, "But " + formatMessage(value, args)).pass("");
+			type = But.class;
+			name = "But " + message;
 			break;
 		case Background:
-			testStep = getTestScenario().createNode(Background.class, formatMessage(value, args)).pass("");
+			type = Background.class;
+			name = message;
 			break;
 		default:
 			Helper.assertFalse("incorrect state " + gherkinState.name());
 		}
+
 		// if test step is not set, do not log. Test will be set in test method state
 		// only.
-		if (TestObject.getTestInfo().testSteps == null)
+		List<ExtentTest> testSteps = test.testSteps;
+		if (testSteps == null)
 			return;
 
-		TestObject.getTestInfo().testSteps.add(testStep);
-		AbstractDriver.getStep().set(testStep);
+		// node is created on the log consumer thread, the test thread does not wait
+		Class<? extends IGherkinFormatterModel> nodeType = type;
+		String nodeName = name;
+		CompletableFuture<ExtentTest> testStep = AsyncLog.reportNode(() -> {
+			ExtentTest node = scenario.createNode(nodeType, nodeName).pass("");
+			testSteps.add(node);
+			return node;
+		});
+		getStepThreadLocal().setPending(testStep);
 	}
 
 	/**
@@ -245,7 +290,8 @@ public class TestLog {
 	 * @param subStep the substep node value
 	 */
 	public static void setPassSubTestStep(String subStep) {
-		if (getTestStep() == null)
+		CompletableFuture<ExtentTest> testStep = getStepThreadLocal().getPending();
+		if (testStep == null)
 			return;
 		testState state = TestObject.getTestState(TestObject.getTestInfo().testId);
 		if (!state.equals(testState.testMethod))
@@ -278,7 +324,7 @@ public class TestLog {
 				"</head> <body>\r\n" + 
 				"    <textarea> "+subStep+"</textarea>\r\n";
 		Markup m = MarkupHelper.createLabel(label, ExtentColor.WHITE);
-		getTestStep().pass(m);
+		AsyncLog.report(() -> testStep.join().pass(m));
 	}
 
 	/**
@@ -301,10 +347,15 @@ public class TestLog {
 		String videoLog = "<video width=\"320\" height=\"240\" controls>\r\n" + "  <source src=" + path
 				+ " type=\"video/mp4\">\r\n" + "  Your browser does not support the video tag.\r\n" + "</video>";
 
-		if (isVideoAttached)
-			getTestStep().pass(videoLog);
-
-		getTestStep().pass("<a href='" + path + "'>screen recording Link</a>");
+		CompletableFuture<ExtentTest> testStep = getStepThreadLocal().getPending();
+		String videoLink = "<a href='" + path + "'>screen recording Link</a>";
+		if (testStep != null) {
+			AsyncLog.report(() -> {
+				if (isVideoAttached)
+					testStep.join().pass(videoLog);
+				testStep.join().pass(videoLink);
+			});
+		}
 		TestObject.getTestInfo().testSubSteps.add("screen recording relative path: " + path);
 
 	}
@@ -317,7 +368,7 @@ public class TestLog {
 	 * @param args  additional arguments for logging to be formatted
 	 */
 	public static void logPass(String value, Object... args) {
-		logConsoleMessage(Priority.INFO, formatMessage(value, args));
+		logConsoleMessage(Priority.INFO, "", value, true, args);
 		if (Config.getValue(ENABLE_EXTENT_SUBSTEPS).equals("true")) {
 			// this will only throw exception with before suite
 			setPassSubTestStep(formatMessage(value, args));
@@ -331,7 +382,7 @@ public class TestLog {
 	 * @param args  additional arguments for logging to be formatted
 	 */
 	public static void logFail(String value, Object... args) {
-		logConsoleMessage(Priority.ERROR, formatMessage(value, args));
+		logConsoleMessage(Priority.ERROR, "", value, true, args);
 
 		// AbstractDriver.getLog().get().error(formatMessage(value, args));
 	}
@@ -343,7 +394,7 @@ public class TestLog {
 	 * @param args  additional arguments for logging to be formatted
 	 */
 	public static void logWarning(String value, Object... args) {
-		logConsoleMessage(Priority.WARN, formatMessage(value, args));
+		logConsoleMessage(Priority.WARN, "", value, true, args);
 	}
 
 	/**
@@ -381,19 +432,36 @@ public class TestLog {
 	 * @return formatted message based on value and arguments
 	 */
 	public static String formatMessage(String value, boolean isLimitMessage, Object... args) {
-		 
-		if(isLimitMessage)
-			value = setMaxLength(value);
-
-		if (args == null || args.length == 0) {
-			return value;
-		} else {
+		String message = value;
+		if (args != null && args.length > 0) {
 			try {
-				return new MessageFormat(value).format(args);
+				message = getMessageFormat(value).format(args);
 			} catch (Exception e) {
-				return value;
+				message = value;
 			}
 		}
+
+		// truncated after formatting, so placeholders are not cut
+		if (isLimitMessage)
+			message = setMaxLength(message);
+		return message;
+	}
+
+	/**
+	 * gets message format from the formatter cache of the thread. message format
+	 * is not thread safe
+	 * 
+	 * @param pattern
+	 * @return
+	 */
+	private static MessageFormat getMessageFormat(String pattern) {
+		Map<String, MessageFormat> formats = MESSAGE_FORMATS.get();
+		MessageFormat format = formats.get(pattern);
+		if (format == null) {
+			format = new MessageFormat(pattern);
+			formats.put(pattern, format);
+		}
+		return format;
 	}
 
 	/**
@@ -403,15 +471,23 @@ public class TestLog {
 	 * @return truncated message to maximum length
 	 */
 	public static String setMaxLength(String value) {
-		boolean isLogLimit = Config.getBooleanValue(IS_LOG_LIMIT);
-		int logMaxLimit = Config.getIntValue(LOG_MAX_LIMIT);
-		if(logMaxLimit == -1) logMaxLimit = value.length();
-		if(isLogLimit)
+		int logMaxLimit = getLogMaxLength();
+		if(logMaxLimit != -1)
 			return setMaxLength(value, logMaxLimit);
 		else
 			return value;
 	}
 
+	/**
+	 * @return max log length, -1 if log limit is disabled
+	 */
+	static int getLogMaxLength() {
+		if (!Config.getBooleanValue(IS_LOG_LIMIT))
+			return -1;
+		int logMaxLimit = Config.getIntValue(LOG_MAX_LIMIT);
+		return logMaxLimit == -1 ? Integer.MAX_VALUE : logMaxLimit;
+	}
+
 	/**
 	 * 
 	 * @param value  value to log
@@ -443,6 +519,18 @@ public class TestLog {
 		DOMConfigurator.configure(TestLog.LOG4JPATH);
 	}
 
+	/**
+	 * plays audio of the gherkin step if audio commentary is enabled
+	 * 
+	 * @param gherkinState
+	 * @param value
+	 * @param args
+	 */
+	private static void playStepAudio(gherkins gherkinState, String value, Object... args) {
+		if (CrossPlatformProperties.getAudioCommentary())
+			playAudio(gherkinState.name() + " " + formatMessage(value, args));
+	}
+
 	/**
 	 * plays audio file based on text value
 	 * 
@@ -477,9 +565,11 @@ public class TestLog {
 
 			// '!' results in playback being a bit faster, more natural
 			AudioInputStream audio = marytts.generateAudio(value + "!");
-			player = new marytts.util.data.audio.AudioPlayer(audio);
-			player.start();
-			player.join();
+			synchronized (AUDIO_LOCK) {
+				player = new marytts.util.data.audio.AudioPlayer(audio);
+				player.start();
+				player.join();
+			}
 		} catch (Exception e) {
 			e.getMessage();
 		}
@@ -490,7 +580,7 @@ public class TestLog {
 	 * 
 	 * @param value text value to play back
 	 */
-	public synchronized static void playWatsonAudio(String value) {
+	public static void playWatsonAudio(String value) {
 		TextToSpeech textToSpeech = new TextToSpeech();
 		// set username and password from IBM account
 		textToSpeech.setUsernameAndPassword("", "");
@@ -504,9 +594,11 @@ public class TestLog {
 			InputStream in = WaveUtils.reWriteWaveHeader(inputStream);
 
 			AudioInputStream audio = AudioSystem.getAudioInputStream(new BufferedInputStream(in));
-			player = new marytts.util.data.audio.AudioPlayer(audio);
-			player.start();
-			player.join();
+			synchronized (AUDIO_LOCK) {
+				player = new marytts.util.data.audio.AudioPlayer(audio);
+				player.start();
+				player.join();
+			}
 
 			in.close();
 			inputStream.close();
@@ -522,27 +614,30 @@ public class TestLog {
 	 * @param priority priority of the message. eg. info, error, warn
 	 * @param value    string value to log
 	 */
-	private static void logConsoleMessage(Priority priority, String value) {
+	private static void logConsoleMessage(Priority priority, String prefix, String value, boolean isLimitMessage,
+			Object... args) {
 		
 		if(Config.getBooleanValue(LOG_SKIP_CONSOLE))
 			return;
 
-		value = Helper.date.getTimestampSeconds() + " : " + getTestLogPrefix() + value;
-		value = Helper.stringRemoveLines(value);
+		// message is formatted when written to console or read
+		TestObject test = TestObject.getTestInfo();
+		LogObject log = new LogObject(priority, getTestLogPrefix() + prefix, value, args,
+				isLimitMessage ? getLogMaxLength() : -1);
 
 		// if batch logging is disabled, log to console
 		Boolean enableBatchLogging = CrossPlatformProperties.getEnableBatchLogging();
 		if (!enableBatchLogging) {
-			TestObject.getTestInfo().log.log(priority, value);
+			AsyncLog.log(test.log, log);
 			//Reporter.log(value);
 		}
 		
-		// keep track of the logs
-		LogObject log = new LogObject(value, priority);
-		TestObject.getTestInfo().testLog.add(log);
+		// keep track of the logs. parent test logs are shared by child tests
+		synchronized (test) {
+			test.testLog.add(log);
+		}
 	}
 
-
 	/**
 	 * sets the logging prefix
 	 * 
@@ -552,8 +647,8 @@ public class TestLog {
 		return TestObject.getTestInfo().className + "-" + TestObject.getTestInfo().testName + " - ";
 	}
 
-	private synchronized static ExtentTest getTestStep() {
-		return AbstractDriver.getStep().get();
+	private static StepThreadLocal getStepThreadLocal() {
+		return (StepThreadLocal) AbstractDriver.getStep();
 	}
 
 	/**
@@ -565,12 +660,36 @@ public class TestLog {
 		if (!enableBatchLogging)
 			return;
 
-		if (TestObject.getTestInfo().isTestComplete) {
-			// print before class logs
-			printBatchClassToConsole(TestObject.BEFORE_CLASS_PREFIX);
+		TestObject test = TestObject.getTestInfo();
+		boolean isStream = Config.getBooleanValue(LOG_BATCH_STREAM);
+		if (!test.isTestComplete && !isStream)
+			return;
+
+		// print before class logs
+		printBatchClassToConsole(TestObject.BEFORE_CLASS_PREFIX);
+
+		// print test logs
+		if (test.parentTest == null || test.testLogAll != test.parentTest.testLog) {
+			printLogs(test.testLogAll);
+			return;
+		}
 
-			// print test logs
-			printLogs(TestObject.getTestInfo().testLogAll);
+		// service tests: print logs of the csv file buffer not printed yet. buffer is
+		// released once all tests in the csv file are complete
+		TestObject parent = test.parentTest;
+		synchronized (parent) {
+			List<LogObject> buffer = parent.testLog;
+			for (int i = parent.batchLogPrinted; i < buffer.size(); i++)
+				AsyncLog.log(test.log, buffer.get(i));
+			parent.batchLogPrinted = buffer.size();
+
+			if (test.isTestComplete) {
+				buffer.clear();
+				parent.batchLogPrinted = 0;
+			}
+		}
+		synchronized (test) {
+			test.testLog = new ArrayList<LogObject>();
 		}
 	}
 
@@ -599,9 +718,11 @@ public class TestLog {
 		if (TestObject.testInfo.get(testId) == null)
 			return;
 
-		List<LogObject> logs = TestObject.getTestInfo(testId).testLog;
-		if(!logs.isEmpty())
-			printLogs(logs, testId);
+		TestObject test = TestObject.getTestInfo(testId);
+		synchronized (test) {
+			if (!test.testLog.isEmpty())
+				printLogs(test.testLog, testId);
+		}
 
 	}
 
@@ -621,18 +742,12 @@ public class TestLog {
 	 * @param testId  id of the test
 	 */
 	public static void printLogs(List<LogObject> testLog, String testId) {
-
-		for (LogObject log : testLog) {
-			if (testId.isEmpty()) {
-				TestObject.getTestInfo().log.log(log.priority, log.value);
-			} else
-				TestObject.getTestInfo(testId).log.log(log.priority, log.value);
+		TestObject test = testId.isEmpty() ? TestObject.getTestInfo() : TestObject.getTestInfo(testId);
+		synchronized (test) {
+			for (LogObject log : testLog)
+				AsyncLog.log(test.log, log);
+			test.testLog = new ArrayList<LogObject>();
 		}
-		if (testId.isEmpty())
-			TestObject.getTestInfo().testLog = new ArrayList<LogObject>();
-		else
-			TestObject.getTestInfo(testId).testLog = new ArrayList<LogObject>();
-
 	}
 
 	public static void printLogoOnSuccess() {
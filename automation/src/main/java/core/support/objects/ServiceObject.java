@@ -99,6 +99,19 @@ public class ServiceObject {
 		return this;
 	}
 	
+	/**
+	 * copy of the csv row values. response, request and error messages are not
+	 * copied
+	 * 
+	 * @return
+	 */
+	public ServiceObject copy() {
+		return new ServiceObject().setServiceObject(TestSuite, TestCaseID, RunFlag, Description, InterfaceType,
+				UriPath, ContentType, Method, Option, RequestHeaders, TemplateFile, RequestBody, OutputParams,
+				RespCodeExp, ExpectedResponse, TcComments, tcName, tcIndex, testType, serviceSteps)
+				.withParent(parent);
+	}
+	
 	private static List<String> getMatchingHeader(Object[] testData) {
 		Map<String, List<String>> headerMap = TestObject.getGlobalTestInfo().serviceObject.getHeaderMap();
 		List<String> header = new ArrayList<String>();
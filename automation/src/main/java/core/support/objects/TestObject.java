@@ -3,7 +3,11 @@ package core.support.objects;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -13,6 +17,7 @@ import org.openqa.selenium.WebDriver;
 import org.testng.ITestResult;
 import org.testng.asserts.SoftAssert;
 
+import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
@@ -20,6 +25,8 @@ import com.google.common.collect.Multimap;
 import core.apiCore.helpers.CsvReader;
 import core.helpers.Helper;
 import core.support.configReader.Config;
+import core.support.configReader.LayeredConfig;
+import core.support.logger.ExtentManager;
 import core.support.logger.LogObject;
 import core.uiCore.driverProperties.driverType.DriverType;
 import core.uiCore.drivers.AbstractDriver;
@@ -54,6 +61,12 @@ public class TestObject {
 	public final static String PROXY_USER = "proxy.username";
 	public final static String PROXY_PASS = "proxy.password";
 	public final static String PROXY_PROTOCOL = "proxy.maven.protocol";
+	public final static String PROXY_AUTO_DETECT_TTL_SECONDS = "proxy.autoDetect.ttl.seconds";
+	public final static String PROXY_AUTO_DETECT_NEGATIVE_TTL_SECONDS = "proxy.autoDetect.negative.ttl.seconds";
+
+	// finished tests kept with logs and responses. older finished tests are compacted
+	public final static String TEST_ARCHIVE_RETAIN_COUNT = "test.archive.retain.count";
+	private static final int DEFAULT_ARCHIVE_RETAIN_COUNT = 100;
 
 	public static String BEFORE_SUITE_PREFIX = "-Beforesuite";
 	public static String AFTER_SUITE_PREFIX = "-Aftersuite";
@@ -119,6 +132,7 @@ public class TestObject {
 	public ExtentTest testFeature;
 	public ExtentTest testScenerio; // current test scenario
 	public List<ExtentTest> testSteps = new ArrayList<ExtentTest>(); // current test scenario
+	public ExtentReports testReport = null; // report the test scenario is written to
 	public List<String> testSubSteps = new ArrayList<String>(); // current test scenario
 	public List<String> missingConfigVars = new ArrayList<String>(); // keep track of missing config variables
 
@@ -126,17 +140,18 @@ public class TestObject {
 	public ScreenRecorder screenRecorder = null;
 	public boolean isScreenRecorderInitiated = false;
 
-	public List<LogObject> testLog = new ArrayList<LogObject>();
+	public List<LogObject> testLog = new ArrayList<LogObject>(); // guarded by the test object
 	public List<LogObject> testLogAll = new ArrayList<LogObject>();
 
 	public Map<String, String> languageMap = new ConcurrentHashMap<String, String>();
 	public Map<String, ServiceObject> apiMap = new ConcurrentHashMap<String, ServiceObject>();// api keywords
-	public Map<String, Object> config = new ConcurrentHashMap<String, Object>();
+	public Map<String, Object> config = new LayeredConfig(); // layered over parent test config
 	public Multimap<String, String> configKeys = ArrayListMultimap.create();
 	public List<TestObject> testObjects = new ArrayList<TestObject>(); // parent test objects keeps track of child test objects
+	public List<String> failedChildTests = new ArrayList<String>(); // names of failed child tests that are compacted
 
 	public static ThreadLocal<String> currentTestName = new ThreadLocal<String>();
-	public static ThreadLocal<String> currentTestId = new ThreadLocal<String>(); // key for testObject
+	public static ThreadLocal<String> currentTestId = new TestIdThreadLocal(); // key for testObject
 
 	public String language;
 	
@@ -146,6 +161,18 @@ public class TestObject {
 	// key: testId
 	public static Map<String, TestObject> testInfo = new ConcurrentHashMap<String, TestObject>();
 
+	// finished tests, oldest first, not yet compacted
+	private static Queue<TestObject> finishedTests = new ConcurrentLinkedQueue<TestObject>();
+	private static AtomicInteger finishedTestCount = new AtomicInteger();
+
+	// ids of compacted tests. compacted tests are removed from testInfo
+	private static Set<String> archivedTestIds = ConcurrentHashMap.newKeySet();
+
+	public TestObject parentTest = null; // csv file test object of service tests
+	public int batchLogPrinted = 0; // csv file log buffer offset printed to console
+	public boolean isArchived = false;
+	public int testSubStepCount = 0; // sub step count after test is archived
+
 	public TestObject withWebDriver(WebDriver webdriver) {
 		this.webDriverList.add(webdriver);
 		return this;
@@ -165,13 +192,33 @@ public class TestObject {
 	 * current driver with test
 	 */
 	public static void initializeTest(DriverObject driver, String testId) {
+		initializeTest(driver, testId, null);
+	}
+
+	/**
+	 * once per test, initialize test object with shared config. eg. service tests
+	 * in a csv file share the config of the csv file. parameters are passed from
+	 * one test to another this way
+	 * 
+	 * @param testId
+	 * @param sharedConfig
+	 */
+	public static void initializeTest(String testId, Map<String, Object> sharedConfig) {
+		DriverObject driver = new DriverObject().withApp(TEST_APP_API);
+		initializeTest(driver, testId, sharedConfig);
+	}
+
+	private static void initializeTest(DriverObject driver, String testId, Map<String, Object> sharedConfig) {
 
 		if (isBeforeTest(testId)) { // testobject is initiated only once
 			TestObject test = new TestObject();
 
 			// inherits test object values from parent. eg.beforeClass from test suite. test
 			// method from before class
-			test = inheritParent(driver, testId);
+			if (sharedConfig != null)
+				test.config = sharedConfig;
+			else
+				test = inheritParent(driver, testId);
 
 			test.withTestId(testId).withTestName(test.getTestName());
 			TestObject.testInfo.put(testId, test);
@@ -185,11 +232,14 @@ public class TestObject {
 			if (test.config.isEmpty())
 				Config.loadConfig(testId);
 
-			// set random string and time per test
-			String timeInstance = Helper.date.getTimeInstance();
-			Config.putValue(RANDOM_STRING, Helper.generateRandomString(30), false);
-			Config.putValue(START_TIME_STRING, timeInstance, false);
-			Config.putValue(UUID_STATIC_STRING, Helper.generateUUID(), false);
+			// set random string and time per test. shared config keeps the values of
+			// the owner
+			if (sharedConfig == null) {
+				String timeInstance = Helper.date.getTimeInstance();
+				Config.putValue(RANDOM_STRING, Helper.generateRandomString(30), false);
+				Config.putValue(START_TIME_STRING, timeInstance, false);
+				Config.putValue(UUID_STATIC_STRING, Helper.generateUUID(), false);
+			}
 
 			// loads all the keywords for api references
 			CsvReader.getAllKeywords();
@@ -212,9 +262,11 @@ public class TestObject {
 	 */
 	public static TestObject inheritParent(DriverObject driver, String testId) {
 		TestObject test = new TestObject();
-		// add config object from previous state to new test object
+		// layer config of new test object over config from previous state. values are
+		// not copied
 		Map<String, Object> configValue = getTestObjectInheritence(driver, testId).config;
-		test.config.putAll(configValue);
+		if (!configValue.isEmpty())
+			test.config = new LayeredConfig(configValue);
 
 		return test;
 	}
@@ -305,12 +357,43 @@ public class TestObject {
 	 * @return
 	 */
 	public static TestObject getTestInfo() {
-		String testId = getTestId();
+		// test object of the current test id is held by the thread
+		TestContext context = ((TestIdThreadLocal) currentTestId).getContext();
+		if (context.test != null)
+			return context.test;
 
-		if (testInfo.get(testId) == null) {
+		String testId = getTestId();
+		TestObject test = testInfo.get(testId);
+		if (test == null) {
 			return getGlobalTestInfo();
 		}
-		return testInfo.get(testId);
+
+		// default test id is not bound, current test id can be set later
+		if (context.testId != null)
+			context.test = test;
+		return test;
+	}
+
+	/**
+	 * gets test object bound to the current thread
+	 * 
+	 * @return null if not resolved yet
+	 */
+	public static TestObject getCurrentTest() {
+		return ((TestIdThreadLocal) currentTestId).getContext().test;
+	}
+
+	/**
+	 * sets test id and test object of the current thread. used to pass the test
+	 * context to child tasks
+	 * 
+	 * @param testId
+	 * @param test   null to resolve on first lookup
+	 */
+	public static void setCurrentTest(String testId, TestObject test) {
+		TestContext context = ((TestIdThreadLocal) currentTestId).getContext();
+		context.testId = testId;
+		context.test = testId == null ? null : test;
 	}
 
 	/**
@@ -420,7 +503,7 @@ public class TestObject {
 	 * @return
 	 */
 	public static boolean isTestObjectSet(String testId) {
-		if (testInfo.get(testId) == null)
+		if (testInfo.get(testId) == null && !archivedTestIds.contains(testId))
 			return false;
 		return true;
 	}
@@ -467,6 +550,94 @@ public class TestObject {
 		return test;
 	}
 
+	/**
+	 * marks test as finished. finished tests beyond TEST_ARCHIVE_RETAIN_COUNT are
+	 * compacted, oldest first: the test object is released and removed from
+	 * testInfo and from its parent test. only the test id is kept, and the test
+	 * name if the test failed, for tests that depend on it
+	 * 
+	 * @param test
+	 */
+	public static void archiveTest(TestObject test) {
+		if (test == null || test.isArchived || !getTestState(test.testId).equals(testState.testMethod))
+			return;
+		test.isArchived = true;
+		finishedTests.add(test);
+
+		int retainCount = Config.getIntValue(TEST_ARCHIVE_RETAIN_COUNT);
+		if (retainCount == -1)
+			retainCount = DEFAULT_ARCHIVE_RETAIN_COUNT;
+
+		finishedTestCount.incrementAndGet();
+		while (finishedTestCount.get() > retainCount) {
+			TestObject oldest = finishedTests.poll();
+			if (oldest == null)
+				return;
+			finishedTestCount.decrementAndGet();
+			oldest.compact();
+		}
+	}
+
+	/**
+	 * returns archived test to the running tests, eg. test run again by the retry
+	 * analyzer. the test is no longer compacted
+	 * 
+	 * @param test
+	 */
+	public static void restoreTest(TestObject test) {
+		if (test == null || !test.isArchived)
+			return;
+		if (finishedTests.remove(test))
+			finishedTestCount.decrementAndGet();
+		test.isArchived = false;
+	}
+
+	/**
+	 * releases large payloads and report nodes of a finished test and removes it
+	 * from testInfo and its parent test. drivers are kept, they are released by
+	 * the driver lifecycle
+	 */
+	private void compact() {
+		archivedTestIds.add(testId);
+		testInfo.remove(testId, this);
+		if (parentTest != null) {
+			synchronized (parentTest) {
+				parentTest.testObjects.remove(this);
+				if (caughtThrowable != null)
+					parentTest.failedChildTests.add(getTestName());
+			}
+		}
+
+		// scenario node is released. empty nodes are removed at the end of the run
+		if (testScenerio != null && getTestSubStepCount() <= 1)
+			ExtentManager.addEmptyTestNode(testScenerio);
+
+		testSubStepCount = testSubSteps.size();
+		testSubSteps = new ArrayList<String>();
+		testSteps = new ArrayList<ExtentTest>();
+		testFeature = null;
+		testScenerio = null;
+		testReport = null;
+		testLog = new ArrayList<LogObject>();
+		testLogAll = new ArrayList<LogObject>();
+		apiMap = new ConcurrentHashMap<String, ServiceObject>();
+		configKeys = ArrayListMultimap.create();
+		screenRecorder = null;
+		if (serviceObject != null)
+			serviceObject.withResponse(null).withRequest(null);
+		if (activeServiceObject != null)
+			activeServiceObject.withResponse(null).withRequest(null);
+	}
+
+	/**
+	 * sub step count, including archived tests
+	 * 
+	 * @return
+	 */
+	public int getTestSubStepCount() {
+		return Math.max(testSubStepCount, testSubSteps.size());
+	}
+
 	public static boolean isBeforeTest(String testId) {
 		TestObject test = testInfo.get(testId);
 		return (test == null);
@@ -624,4 +795,43 @@ public class TestObject {
 	public static String getDefaultTestObjectId() {
 		return TestObject.DEFAULT_TEST;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * current test id and test object of a thread
+	 */
+	private static class TestContext {
+		private String testId;
+		private TestObject test;
+	}
+
+	/**
+	 * test id of the thread. setting the test id releases the test object bound to
+	 * the thread, it is resolved again on the next lookup
+	 */
+	private static class TestIdThreadLocal extends ThreadLocal<String> {
+		private final ThreadLocal<TestContext> context = ThreadLocal.withInitial(TestContext::new);
+
+		TestContext getContext() {
+			return context.get();
+		}
+
+		@Override
+		public String get() {
+			return context.get().testId;
+		}
+
+		@Override
+		public void set(String testId) {
+			TestContext current = context.get();
+			if (current.testId != null && current.testId.equals(testId))
+				return;
+			current.testId = testId;
+			current.test = null;
+		}
+
+		@Override
+		public void remove() {
+			context.remove();
+		}
+	}
+}
@@ -22,6 +22,7 @@ import com.microsoft.appcenter.appium.Factory;
 import core.helpers.Helper;
 import core.support.configReader.Config;
 import core.support.logger.ExtentManager;
+import core.support.logger.StepThreadLocal;
 import core.support.logger.TestLog;
 import core.support.objects.DriverObject;
 import core.support.objects.TestObject;
@@ -37,7 +38,7 @@ import junit.framework.Assert;
 public class AbstractDriverJunit {
 
 	public static ExtentReports extent;
-	public static ThreadLocal<ExtentTest> step = new ThreadLocal<ExtentTest>();
+	public static ThreadLocal<ExtentTest> step = new StepThreadLocal();
 	private static boolean isBeforeTestRun = true;
 
 	// key: classname value: feature
@@ -23,6 +23,7 @@ import core.helpers.Helper;
 import core.support.configReader.Config;
 import core.support.listeners.RetryTest;
 import core.support.logger.ExtentManager;
+import core.support.logger.StepThreadLocal;
 import core.support.logger.TestLog;
 import core.support.objects.DriverObject;
 import core.support.objects.ServiceObject;
@@ -38,7 +39,7 @@ import core.uiCore.driverProperties.globalProperties.CrossPlatformProperties;
 public class AbstractDriverTestNG implements ITest {
 
 	public static ExtentReports extent;
-	public static ThreadLocal<ExtentTest> step = new ThreadLocal<ExtentTest>();
+	public static ThreadLocal<ExtentTest> step = new StepThreadLocal();
 
 	private static ThreadLocal<WebDriver> webDriver = new ThreadLocal<WebDriver>();
 
@@ -0,0 +1,128 @@
+package core.apiCore.helpers;
+
+import static io.restassured.RestAssured.given;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import core.apiCore.helpers.AuthTokenCache.Token;
+import core.support.UnitTestHelper;
+import core.support.logger.TestLog;
+import core.support.objects.TestObject;
+import io.restassured.response.Response;
+
+/**
+ * token requests and background refresh against a local token endpoint.
+ * tokens expire after 3 seconds and are refreshed 2 seconds before expiry
+ */
+public class AuthTokenCacheTest {
+
+	private static final String TEST_ID = "auth-token-cache";
+
+	private HttpServer server;
+	private AtomicInteger tokenCount = new AtomicInteger();
+
+	// test bound to the thread of each refresh request
+	private List<Object> refreshTests = new CopyOnWriteArrayList<Object>();
+
+	@BeforeClass
+	public void startServer() throws Exception {
+		server = UnitTestHelper.startServer(exchange -> {
+			byte[] body = ("{\"access_token\":\"token" + tokenCount.incrementAndGet()
+					+ "\",\"token_type\":\"Bearer\",\"expires_in\":3}").getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		});
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@BeforeMethod
+	public void bindTest() {
+		tokenCount.set(0);
+		refreshTests.clear();
+		Map<String, Object> config = new HashMap<String, Object>();
+		config.put(AuthTokenCache.AUTH_TOKEN_REFRESH_BEFORE_SECONDS, "2");
+		config.put(TestLog.LOG_SKIP_CONSOLE, "true");
+		UnitTestHelper.bindTest(TEST_ID, config);
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void unbindTest() {
+		AuthTokenCache.clear();
+		UnitTestHelper.unbindTest(TEST_ID);
+	}
+
+	@Test
+	public void concurrentLookupsShareRequest() throws Exception {
+		String key = AuthTokenCache.getKey("shared", "client", "secret");
+		UnitTestHelper.runConcurrently(8, 10, (thread, iteration) -> {
+			Token token = AuthTokenCache.getToken(key, tokenRequest(), null);
+			assertEquals(token.getAuthorization(), "Bearer token1");
+		});
+
+		assertEquals(tokenCount.get(), 1);
+	}
+
+	@Test
+	public void refreshesWhileUsed() throws Exception {
+		String key = AuthTokenCache.getKey("used", "client", "secret");
+		long end = System.currentTimeMillis() + 3500;
+		while (System.currentTimeMillis() < end) {
+			assertTrue(AuthTokenCache.getToken(key, tokenRequest(), refreshRequest()).accessToken.startsWith("token"));
+			Thread.sleep(100);
+		}
+
+		// first request, then a refresh about every second
+		assertTrue(tokenCount.get() >= 3, "token requests: " + tokenCount.get());
+		for (Object test : refreshTests)
+			assertNull(test);
+	}
+
+	@Test
+	public void stopsRefreshWhenNotUsed() throws Exception {
+		String key = AuthTokenCache.getKey("unused", "client", "secret");
+		AuthTokenCache.getToken(key, tokenRequest(), refreshRequest());
+
+		// the received token was used once, its refresh is not
+		Thread.sleep(3500);
+		assertEquals(tokenCount.get(), 2);
+		assertEquals(refreshTests.size(), 1);
+		assertNull(refreshTests.get(0));
+	}
+
+	private Supplier<Response> tokenRequest() {
+		String url = "http://localhost:" + server.getAddress().getPort() + "/token";
+		return () -> given().get(url);
+	}
+
+	private Supplier<Response> refreshRequest() {
+		Supplier<Response> request = tokenRequest();
+		return () -> {
+			refreshTests.add(TestObject.getCurrentTest());
+			return request.get();
+		};
+	}
+}
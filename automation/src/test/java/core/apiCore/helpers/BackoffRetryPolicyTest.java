@@ -0,0 +1,60 @@
+package core.apiCore.helpers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import core.apiCore.ServiceManager;
+import core.support.UnitTestHelper;
+
+/**
+ * delays of the backoff retry policy from config
+ */
+public class BackoffRetryPolicyTest {
+
+	private static final String TEST_ID = "backoff-retry-policy";
+
+	@AfterMethod(alwaysRun = true)
+	public void unbindTest() {
+		UnitTestHelper.unbindTest(TEST_ID);
+	}
+
+	@Test
+	public void noDelayWhenNotSet() {
+		UnitTestHelper.bindTest(TEST_ID, new HashMap<String, Object>());
+		BackoffRetryPolicy policy = BackoffRetryPolicy.fromConfig();
+
+		assertEquals(policy.getDelaySeconds(1), 0.0);
+		assertEquals(policy.getDelaySeconds(5), 0.0);
+	}
+
+	@Test
+	public void exponentialDelayIsCapped() {
+		Map<String, Object> config = new HashMap<String, Object>();
+		config.put(ServiceManager.SERVICE_RESPONSE_DELAY_BETWEEN_ATTEMPTS_SECONDS, "1");
+		config.put(ServiceManager.SERVICE_RESPONSE_DELAY_BETWEEN_ATTEMPTS_MULTIPLIER, "2");
+		config.put(ServiceManager.SERVICE_RESPONSE_DELAY_MAX_SECONDS, "5");
+		UnitTestHelper.bindTest(TEST_ID, config);
+		BackoffRetryPolicy policy = BackoffRetryPolicy.fromConfig();
+
+		assertEquals(policy.getDelaySeconds(1), 1.0);
+		assertEquals(policy.getDelaySeconds(2), 2.0);
+		assertEquals(policy.getDelaySeconds(3), 4.0);
+		assertEquals(policy.getDelaySeconds(4), 5.0);
+	}
+
+	@Test
+	public void jitterReducesDelay() {
+		BackoffRetryPolicy policy = new BackoffRetryPolicy().withInitialDelaySeconds(10).withJitter(0.5);
+
+		for (int i = 0; i < 100; i++) {
+			double delay = policy.getDelaySeconds(1);
+			assertTrue(delay > 5 && delay <= 10, "delay: " + delay);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package core.apiCore.helpers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import core.apiCore.interfaces.RestApiInterface;
+import core.support.UnitTestHelper;
+import core.support.logger.TestLog;
+import core.support.objects.ServiceObject;
+
+/**
+ * requests lease keep alive connections from the shared pool when enabled
+ */
+public class HttpConnectionPoolTest {
+
+	private static final int THREADS = 4;
+	private static final int ITERATIONS = 25;
+
+	private HttpServer server;
+
+	// client port of each connection the server has seen
+	private Set<Integer> connections = ConcurrentHashMap.newKeySet();
+	private AtomicInteger requests = new AtomicInteger();
+
+	@BeforeMethod
+	public void startServer() throws Exception {
+		connections.clear();
+		requests.set(0);
+		server = UnitTestHelper.startServer(exchange -> {
+			connections.add(exchange.getRemoteAddress().getPort());
+			requests.incrementAndGet();
+			byte[] body = "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		});
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void stopServer() {
+		server.stop(0);
+		HttpConnectionPool.shutdown();
+	}
+
+	@Test
+	public void pooledRequestsReuseConnections() throws Exception {
+		sendPooledRequests();
+
+		assertEquals(requests.get(), THREADS * ITERATIONS);
+		assertTrue(connections.size() <= THREADS, "connections: " + connections.size());
+	}
+
+	@Test
+	public void poolIsDisabledByDefault() {
+		UnitTestHelper.bindTest("poolDefault", new HashMap<String, Object>());
+		try {
+			assertEquals(HttpConnectionPool.isEnabled(), false);
+		} finally {
+			UnitTestHelper.unbindTest("poolDefault");
+		}
+	}
+
+	private void sendPooledRequests() throws Exception {
+		int port = server.getAddress().getPort();
+
+		UnitTestHelper.runConcurrently(THREADS, ITERATIONS, (thread, iteration) -> {
+			String testId = "pool-" + thread;
+			Map<String, Object> config = new HashMap<String, Object>();
+			config.put(RestApiInterface.API_BASE_URL, "http://localhost:" + port);
+			config.put(HttpConnectionPool.API_CONNECTION_POOL_ENABLED, "true");
+			config.put(TestLog.LOG_SKIP_CONSOLE, "true");
+			UnitTestHelper.bindTest(testId, config);
+			try {
+				ServiceObject serviceObject = new ServiceObject().withUriPath("/status");
+				assertEquals(RestApiInterface.setURI(serviceObject).get().statusCode(), 200);
+			} finally {
+				UnitTestHelper.unbindTest(testId);
+			}
+		});
+	}
+}
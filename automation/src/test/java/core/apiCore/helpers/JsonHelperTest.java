@@ -0,0 +1,101 @@
+package core.apiCore.helpers;
+
+import static io.restassured.RestAssured.given;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import core.support.UnitTestHelper;
+import core.support.logger.TestLog;
+import io.restassured.response.Response;
+
+/**
+ * response body size and json path lookups of spooled response bodies
+ */
+public class JsonHelperTest {
+
+	private static final String TEST_ID = "json-helper";
+	private static final String BODY = "{\"name\":\"\u00e9\",\"id\":1}";
+
+	private HttpServer server;
+
+	@BeforeClass
+	public void startServer() throws Exception {
+		server = UnitTestHelper.startServer(exchange -> {
+			byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		});
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@BeforeMethod
+	public void bindTest() {
+		Map<String, Object> config = new HashMap<String, Object>();
+		config.put(TestLog.LOG_SKIP_CONSOLE, "true");
+		UnitTestHelper.bindTest(TEST_ID, config);
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void unbindTest() {
+		JsonHelper.releaseParsedJson();
+		UnitTestHelper.unbindTest(TEST_ID);
+	}
+
+	@Test
+	public void sizeCountsBytes() {
+		Response response = getResponse();
+
+		assertEquals(JsonHelper.getResponseSize(response), BODY.getBytes(StandardCharsets.UTF_8).length);
+		assertEquals(JsonHelper.getResponseValue(response), BODY);
+	}
+
+	@Test
+	public void jsonPathsReadSpooledFile() throws Exception {
+		Response response = getResponse();
+
+		// file content differs from the response, lookups must read the file
+		File file = File.createTempFile("spooled", ".json");
+		file.deleteOnExit();
+		Files.write(file.toPath(), "{\"name\":\"spooled\",\"id\":2}".getBytes(StandardCharsets.UTF_8));
+		JsonHelper.setSpooledBody(response, file);
+
+		assertEquals(JsonHelper.getJsonValue(response, "id"), "2");
+
+		String jsonPathSource = JsonHelper.getResponseValue(response,
+				DataHelper.VERIFY_JSON_PART_INDICATOR_UNDERSCORE + " name:equalTo(spooled) && "
+						+ DataHelper.VERIFY_JSON_PART_INDICATOR_UNDERSCORE + " id:equalTo(2)");
+		assertTrue(jsonPathSource.contains(file.getName()), jsonPathSource);
+		assertEquals(JsonHelper.getJsonValue(jsonPathSource, "name"), "spooled");
+
+		// text validation needs the decoded body
+		String body = JsonHelper.getResponseValue(response,
+				DataHelper.VERIFY_RESPONSE_BODY_INDICATOR + " isNotEmpty");
+		assertEquals(body, BODY);
+	}
+
+	private Response getResponse() {
+		return given().get("http://localhost:" + server.getAddress().getPort() + "/item").then().extract().response();
+	}
+}
@@ -0,0 +1,93 @@
+package core.apiCore.helpers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import core.apiCore.interfaces.RestApiInterface;
+import core.support.UnitTestHelper;
+import core.support.configReader.Config;
+import core.support.logger.TestLog;
+import core.support.objects.ServiceObject;
+import core.support.objects.TestObject;
+
+/**
+ * load profile against a local server. each request saves an output
+ * parameter, workers must not write to the test config or logs
+ */
+public class LoadProfileTest {
+
+	private static final String TEST_ID = "load-profile";
+	private static final int CONCURRENCY = 8;
+
+	private HttpServer server;
+	private AtomicInteger requestCount = new AtomicInteger();
+
+	@BeforeClass
+	public void startServer() throws Exception {
+		server = UnitTestHelper.startServer(exchange -> {
+			byte[] body = ("{\"id\":" + requestCount.incrementAndGet() + "}").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		});
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@BeforeMethod
+	public void bindTest() {
+		requestCount.set(0);
+		Map<String, Object> config = new HashMap<String, Object>();
+		config.put(RestApiInterface.API_BASE_URL, "http://localhost:" + server.getAddress().getPort());
+		config.put(LoadProfile.API_LOAD_CONCURRENCY, String.valueOf(CONCURRENCY));
+		config.put(LoadProfile.API_LOAD_DURATION_SECONDS, "2");
+		config.put(LoadProfile.API_LOAD_RAMP_UP_SECONDS, "1");
+		UnitTestHelper.bindTest(TEST_ID, config);
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void unbindTest() {
+		UnitTestHelper.unbindTest(TEST_ID);
+	}
+
+	@Test
+	public void workersAreIsolated() {
+		TestObject test = TestObject.getTestInfo();
+		int logCount = test.testLog.size();
+		ServiceObject serviceObject = new ServiceObject().withUriPath("/item").withMethod("GET")
+				.withRespCodeExp("200").withExpectedResponse(DataHelper.VERIFY_JSON_PART_INDICATOR_UNDERSCORE
+						+ " id:isNotEmpty").withOutputParams("id:<$loadId>");
+
+		LoadProfile.LoadResult result = LoadProfile.run(serviceObject,
+				request -> RestApiInterface.evaluateRequestAndReceiveResponse(request));
+
+		assertTrue(result.getRequestCount() > CONCURRENCY, "requests: " + result.getRequestCount());
+		assertEquals(result.getRequestCount(), requestCount.get());
+		assertEquals(result.getErrorCount(), 0, result.getErrorSummary());
+
+		// output parameters, log settings and logs of workers stay with the workers
+		assertEquals(Config.getValue("loadId"), "");
+		assertEquals(Config.getValue(TestLog.LOG_SKIP_CONSOLE), "");
+		assertEquals(Config.getValue(TestLog.ENABLE_EXTENT_SUBSTEPS), "");
+		assertEquals(test.testLog.size(), logCount + 1);
+	}
+}
@@ -0,0 +1,114 @@
+package core.apiCore.interfaces;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import core.apiCore.ServiceManager;
+import core.apiCore.helpers.ServiceExecutor;
+import core.support.UnitTestHelper;
+import core.support.logger.TestLog;
+import core.support.objects.ServiceObject;
+
+/**
+ * request attempts in async mode against a local server that fails the first
+ * request of each path. waits between attempts must not hold pool threads
+ */
+public class AsyncAttemptTest {
+
+	private static final String TEST_ID = "async-attempt";
+	private static final int POOL_THREADS = 2;
+	private static final int ROWS = 20;
+
+	private HttpServer server;
+	private Map<String, AtomicInteger> hits = new ConcurrentHashMap<String, AtomicInteger>();
+
+	@BeforeClass
+	public void startServer() throws Exception {
+		server = UnitTestHelper.startServer(exchange -> {
+			String path = exchange.getRequestURI().getPath();
+			int hit = hits.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+			byte[] body = (path + ":" + hit).getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(hit == 1 ? 503 : 200, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		});
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@BeforeMethod
+	public void bindTest() {
+		hits.clear();
+		Map<String, Object> config = new HashMap<String, Object>();
+		config.put(RestApiInterface.API_BASE_URL, "http://localhost:" + server.getAddress().getPort());
+		config.put(TestLog.LOG_SKIP_CONSOLE, "true");
+		config.put(ServiceManager.SERVICE_TIMEOUT_VALIDATION_ENABLED, "true");
+		config.put(ServiceManager.SERVICE_TIMEOUT_VALIDATION_SECONDS, "30");
+		config.put(ServiceManager.SERVICE_RESPONSE_DELAY_BETWEEN_ATTEMPTS_SECONDS, "1");
+		config.put(ServiceExecutor.SERVICE_ASYNC_ENABLED, "true");
+		config.put(ServiceExecutor.SERVICE_ASYNC_THREADS, String.valueOf(POOL_THREADS));
+		UnitTestHelper.bindTest(TEST_ID, config);
+
+		// pool is created with the thread count of this test
+		ServiceExecutor.shutdown();
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void unbindTest() {
+		ServiceExecutor.shutdown();
+		UnitTestHelper.unbindTest(TEST_ID);
+	}
+
+	@Test
+	public void retriesUntilSuccess() {
+		ServiceObject serviceObject = RestApiInterface.evaluateRequestAndReceiveResponse(getRow(0));
+
+		assertTrue(serviceObject.getErrorMessages().isEmpty(), serviceObject.getErrorMessages().toString());
+		assertEquals(serviceObject.getResponse().getStatusCode(), 200);
+		assertEquals(hits.get("/row0").get(), 2);
+	}
+
+	@Test
+	public void waitsDoNotHoldPoolThreads() {
+		long start = System.nanoTime();
+		List<CompletableFuture<ServiceObject>> futures = new ArrayList<CompletableFuture<ServiceObject>>();
+		for (int i = 0; i < ROWS; i++)
+			futures.add(RestApiInterface.evaluateRequestAndReceiveResponseAsync(getRow(i)));
+
+		for (int i = 0; i < ROWS; i++) {
+			ServiceObject serviceObject = ServiceExecutor.join(futures.get(i));
+			assertTrue(serviceObject.getErrorMessages().isEmpty(), serviceObject.getErrorMessages().toString());
+			assertEquals(serviceObject.getResponse().asString(), "/row" + i + ":2");
+		}
+
+		// blocking waits would take ROWS / POOL_THREADS seconds
+		double seconds = (System.nanoTime() - start) / 1e9;
+		assertTrue(seconds < ROWS / POOL_THREADS / 2.0, "rows took: " + seconds + " seconds");
+	}
+
+	private ServiceObject getRow(int row) {
+		return new ServiceObject().withUriPath("/row" + row).withMethod("GET").withRespCodeExp("200");
+	}
+}
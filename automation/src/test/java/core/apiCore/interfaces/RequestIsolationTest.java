@@ -0,0 +1,76 @@
+package core.apiCore.interfaces;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import core.support.UnitTestHelper;
+import core.support.logger.TestLog;
+import core.support.objects.ServiceObject;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+
+/**
+ * parallel tests with different base uris send requests to a local echo
+ * server. each response must match the request of its own test, and static
+ * rest assured state is not modified
+ */
+public class RequestIsolationTest {
+
+	private static final int THREADS = 8;
+	private static final int ITERATIONS = 25;
+
+	private HttpServer server;
+
+	@BeforeClass
+	public void startServer() throws Exception {
+		// echoes request path and test header
+		server = UnitTestHelper.startServer(exchange -> {
+			byte[] body = (exchange.getRequestURI().getPath() + ":" + exchange.getRequestHeaders().getFirst("test"))
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		});
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	public void requestsDoNotCrossTalk() throws Exception {
+		int port = server.getAddress().getPort();
+		String baseUri = RestAssured.baseURI;
+		Object proxy = RestAssured.proxy;
+
+		UnitTestHelper.runConcurrently(THREADS, ITERATIONS, (thread, iteration) -> {
+			String testId = "isolation-" + thread;
+			Map<String, Object> config = new HashMap<String, Object>();
+			config.put(RestApiInterface.API_BASE_URL, "http://localhost:" + port + "/test" + thread);
+			config.put(TestLog.LOG_SKIP_CONSOLE, "true");
+			UnitTestHelper.bindTest(testId, config);
+			try {
+				ServiceObject serviceObject = new ServiceObject().withUriPath("/item" + iteration);
+				Response response = RestApiInterface.setURI(serviceObject).header("test", testId).get();
+				assertEquals(response.asString(), "/test" + thread + "/item" + iteration + ":" + testId);
+			} finally {
+				UnitTestHelper.unbindTest(testId);
+			}
+		});
+
+		assertEquals(RestAssured.baseURI, baseUri);
+		assertEquals(RestAssured.proxy, proxy);
+	}
+}
@@ -0,0 +1,67 @@
+package core.helpers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * zips a report directory and reads it back with java.util.zip
+ */
+public class ZipHelperTest {
+
+	private Path root;
+
+	@BeforeMethod
+	public void createDir() throws Exception {
+		root = Files.createTempDirectory("zip-helper");
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void deleteDir() throws Exception {
+		FileUtils.deleteDirectory(root.toFile());
+	}
+
+	@Test
+	public void zipsFilesWithRelativePaths() throws Exception {
+		File sourceDir = root.resolve("report").toFile();
+		String html = StringUtils.repeat("<div>report</div>", 10_000);
+		byte[] image = new byte[2 * 1024 * 1024];
+		new Random(1).nextBytes(image);
+		FileUtils.writeStringToFile(new File(sourceDir, "index.html"), html, StandardCharsets.UTF_8);
+		FileUtils.writeByteArrayToFile(new File(sourceDir, "media/screenshot.png"), image);
+		FileUtils.writeStringToFile(new File(sourceDir, "empty.txt"), "", StandardCharsets.UTF_8);
+
+		File destFile = root.resolve("report.zip").toFile();
+		ZipHelper.zipDir(sourceDir, destFile);
+
+		try (ZipFile zip = new ZipFile(destFile)) {
+			assertEquals(zip.size(), 3);
+
+			ZipEntry index = zip.getEntry("index.html");
+			assertEquals(index.getMethod(), ZipEntry.DEFLATED);
+			assertEquals(IOUtils.toString(zip.getInputStream(index), StandardCharsets.UTF_8), html);
+
+			ZipEntry screenshot = zip.getEntry("media/screenshot.png");
+			assertEquals(screenshot.getMethod(), ZipEntry.STORED);
+			assertEquals(IOUtils.toByteArray(zip.getInputStream(screenshot)), image);
+
+			assertEquals(zip.getEntry("empty.txt").getSize(), 0);
+		}
+		assertFalse(new File(destFile.getPath() + ".tmp").exists());
+		assertFalse(new File(destFile.getPath() + ".parts").exists());
+	}
+}
@@ -0,0 +1,72 @@
+package core.helpers.csvHelper;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import core.support.UnitTestHelper;
+
+/**
+ * csv cell writes are written through by default, batched when enabled
+ */
+public class CsvTableTest {
+
+	private File directory;
+	private File file;
+
+	@BeforeMethod
+	public void createFile() throws Exception {
+		directory = Files.createTempDirectory("csv").toFile();
+		file = new File(directory, "data.csv");
+		Files.write(file.toPath(), "id,value\na,1\nb,2\n".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void deleteFile() {
+		CsvTable.invalidate(file.getPath());
+		UnitTestHelper.unbindTest("csvTableTest");
+		for (File child : directory.listFiles())
+			child.delete();
+		directory.delete();
+	}
+
+	@Test
+	public void writesAreWrittenThroughByDefault() throws Exception {
+		UnitTestHelper.bindTest("csvTableTest", new HashMap<String, Object>());
+		CsvTable table = CsvTable.getTable(file.getPath());
+
+		table.setCell(table.getRowIndex("b"), table.getColumnIndex("value"), "updated");
+
+		assertTrue(read().contains("\"b\",\"updated\""));
+		assertEquals(directory.listFiles().length, 1, "only the csv file is kept in the directory");
+	}
+
+	@Test
+	public void batchWritesAreWrittenOnFlush() throws Exception {
+		Map<String, Object> config = new HashMap<String, Object>();
+		config.put(CsvTable.CSV_WRITE_BATCH, "true");
+		UnitTestHelper.bindTest("csvTableTest", config);
+		CsvTable table = CsvTable.getTable(file.getPath());
+
+		table.setCell(table.getRowIndex("a"), table.getColumnIndex("value"), "batched");
+		assertFalse(read().contains("batched"));
+		assertEquals(table.getCell(1, 1), "batched");
+
+		CsvTable.flush(file.getPath());
+		assertTrue(read().contains("batched"));
+	}
+
+	private String read() throws Exception {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+}
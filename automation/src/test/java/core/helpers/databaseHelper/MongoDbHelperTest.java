@@ -0,0 +1,85 @@
+package core.helpers.databaseHelper;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.mongodb.client.model.Filters;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+/**
+ * mongo helper against an in process mongo server
+ */
+public class MongoDbHelperTest {
+
+	private MongoServer server;
+	private String connectionString;
+
+	@BeforeClass
+	public void startServer() {
+		server = new MongoServer(new MemoryBackend());
+		InetSocketAddress address = server.bind();
+		connectionString = "mongodb://localhost:" + address.getPort();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		MongoDbHelper.closeClients();
+		server.shutdownNow();
+	}
+
+	@Test
+	public void bulkInsertAndDelete() throws Exception {
+		MongoObject mongo = new MongoObject().withConnectionString(connectionString).withDatabase("test")
+				.withCollection("bulk");
+
+		List<Document> documents = new ArrayList<Document>();
+		for (int i = 0; i < 10; i++)
+			documents.add(new Document("name", (i % 2 == 0 ? "zzz_" : "user_") + i));
+		assertEquals(MongoDbHelper.insertDocuments(mongo, documents), 10);
+
+		List<Bson> filters = new ArrayList<Bson>();
+		filters.add(Filters.eq("name", "user_1"));
+		filters.add(Filters.eq("name", "user_3"));
+		assertEquals(MongoDbHelper.deleteDocuments(mongo, filters), 2);
+
+		MongoDbHelper.deleteData(mongo);
+		assertEquals(MongoDbHelper.getCollection(mongo).countDocuments(), 3);
+	}
+
+	@Test
+	public void clientIsSharedPerConnection() {
+		MongoObject mongo = new MongoObject().withConnectionString(connectionString).withDatabase("test");
+		MongoObject other = new MongoObject().withConnectionString(connectionString).withDatabase("other");
+
+		assertSame(MongoDbHelper.getClient(mongo), MongoDbHelper.getClient(other));
+	}
+
+	@Test
+	public void clientIsNotSharedAcrossCredentials() {
+		MongoObject mongo = new MongoObject().withUsername("user").withPassword("old").withDatabase("test");
+		MongoObject sameCredentials = new MongoObject().withUsername("user").withPassword("old")
+				.withDatabase("test");
+		MongoObject changedPassword = new MongoObject().withUsername("user").withPassword("new")
+				.withDatabase("test");
+		MongoObject changedAuthSource = new MongoObject().withUsername("user").withPassword("old")
+				.withDatabase("admin");
+
+		// clients connect lazily, no server needed
+		assertSame(MongoDbHelper.getClient(mongo), MongoDbHelper.getClient(sameCredentials));
+		assertNotSame(MongoDbHelper.getClient(mongo), MongoDbHelper.getClient(changedPassword));
+		assertNotSame(MongoDbHelper.getClient(mongo), MongoDbHelper.getClient(changedAuthSource));
+	}
+}
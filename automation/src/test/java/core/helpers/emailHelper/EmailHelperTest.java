@@ -0,0 +1,104 @@
+package core.helpers.emailHelper;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+
+import javax.mail.Message;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import core.support.UnitTestHelper;
+
+/**
+ * email search against an embedded mail server
+ */
+public class EmailHelperTest {
+
+	private static final String USER = "user@localhost";
+	private static final String PASSWORD = "secret";
+
+	private GreenMail mailServer;
+	private EmailObject email;
+
+	@BeforeMethod
+	public void startServer() {
+		UnitTestHelper.bindTest("emailHelperTest", new HashMap<String, Object>());
+		mailServer = new GreenMail(ServerSetupTest.SMTP_IMAP);
+		mailServer.start();
+		mailServer.setUser(USER, USER, PASSWORD);
+
+		email = new EmailObject().withToEmail(USER).withPassword(PASSWORD).withImapHost("localhost")
+				.withImapPort(mailServer.getImap().getPort()).withImapProtocol("imap");
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void stopServer() {
+		EmailHelper.closeMailboxes();
+		mailServer.stop();
+		UnitTestHelper.unbindTest("emailHelperTest");
+	}
+
+	@Test
+	public void getEmailContentReturnsBody() throws Exception {
+		send("welcome", "activation code 1234");
+
+		assertTrue(EmailHelper.getEmailContent(email.withSubject("welcome")).contains("activation code 1234"));
+		EmailHelper.searchEmail(email);
+	}
+
+	@Test(expectedExceptions = Exception.class)
+	public void searchEmailFailsWithoutMatch() throws Exception {
+		send("welcome", "body");
+
+		EmailHelper.searchEmail(email.withSubject("missing"));
+	}
+
+	@Test
+	public void waitForEmailReturnsNewMessagesOnly() throws Exception {
+		send("code 1", "first");
+
+		Message first = EmailHelper.waitForEmail(email.withSubject("code"), 5);
+		assertNotNull(first);
+		assertEquals(first.getSubject(), "code 1");
+
+		// mark is past the first message
+		assertNull(EmailHelper.waitForEmail(email, 0));
+
+		send("other", "not matching");
+		send("code 2", "second");
+		Message second = EmailHelper.waitForEmail(email, 10);
+		assertNotNull(second);
+		assertEquals(second.getSubject(), "code 2");
+	}
+
+	@Test
+	public void waitForEmailAfterReconnect() throws Exception {
+		send("token 1", "first");
+		assertNotNull(EmailHelper.waitForEmail(email.withSubject("token"), 5));
+
+		// new connection, same mailbox marks
+		EmailHelper.closeMailboxes();
+		assertNull(EmailHelper.waitForEmail(email, 0));
+
+		send("token 2", "second");
+		Message second = EmailHelper.waitForEmail(email, 10);
+		assertNotNull(second);
+		assertEquals(second.getSubject(), "token 2");
+	}
+
+	private void send(String subject, String body) {
+		int count = mailServer.getReceivedMessages().length;
+		GreenMailUtil.sendTextEmail(USER, "sender@localhost", subject, body, ServerSetupTest.SMTP);
+		mailServer.waitForIncomingEmail(5000, count + 1);
+	}
+}
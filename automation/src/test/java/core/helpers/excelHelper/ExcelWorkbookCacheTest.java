@@ -0,0 +1,101 @@
+package core.helpers.excelHelper;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import core.support.UnitTestHelper;
+
+/**
+ * cell writes are patched into the file, other cells, styles and formulas are
+ * kept
+ */
+public class ExcelWorkbookCacheTest {
+
+	private File file;
+
+	@BeforeMethod
+	public void createWorkbook() throws Exception {
+		UnitTestHelper.bindTest("excelWorkbookCacheTest", new HashMap<String, Object>());
+		file = Files.createTempFile("workbook", ".xlsx").toFile();
+
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream output = new FileOutputStream(file)) {
+			XSSFSheet sheet = workbook.createSheet("data");
+			XSSFCellStyle bold = workbook.createCellStyle();
+			bold.getFont().setBold(true);
+
+			XSSFRow header = sheet.createRow(0);
+			header.createCell(0).setCellValue("id");
+			header.createCell(1).setCellValue("value");
+			header.getCell(1).setCellStyle(bold);
+
+			XSSFRow row = sheet.createRow(2);
+			row.createCell(0).setCellValue(1);
+			row.createCell(1).setCellValue(2);
+			row.createCell(2).setCellFormula("A3+B3");
+			workbook.createSheet("other").createRow(0).createCell(0).setCellValue("unchanged");
+			workbook.write(output);
+		}
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void deleteWorkbook() {
+		file.delete();
+		UnitTestHelper.unbindTest("excelWorkbookCacheTest");
+	}
+
+	@Test
+	public void writesArePatchedIntoFile() throws Exception {
+		ExcelWorkbookCache cache = ExcelWorkbookCache.getWorkbook(file.getPath());
+		assertEquals(cache.getCell("data", 0, 1), "value");
+		assertNull(cache.getCell("data", 1, 0));
+
+		cache.setCell("data", 0, 1, "updated <&>");
+		cache.setCell("data", 1, 3, "new row");
+		cache.setCell("data", 2, 2, "formula result");
+		cache.setCell("data", 5, 0, "last");
+
+		try (FileInputStream input = new FileInputStream(file); XSSFWorkbook workbook = new XSSFWorkbook(input)) {
+			XSSFSheet sheet = workbook.getSheet("data");
+			assertEquals(sheet.getRow(0).getCell(0).getStringCellValue(), "id");
+			assertEquals(sheet.getRow(0).getCell(1).getStringCellValue(), "updated <&>");
+			assertEquals(sheet.getRow(0).getCell(1).getCellStyle().getFont().getBold(), true);
+			assertEquals(sheet.getRow(1).getCell(3).getStringCellValue(), "new row");
+			assertEquals(sheet.getRow(2).getCell(0).getNumericCellValue(), 1.0);
+			assertEquals(sheet.getRow(2).getCell(2).getCellType(), CellType.FORMULA);
+			assertEquals(sheet.getRow(2).getCell(2).getCellFormula(), "A3+B3");
+			assertEquals(sheet.getRow(5).getCell(0).getStringCellValue(), "last");
+			assertEquals(workbook.getSheet("other").getRow(0).getCell(0).getStringCellValue(), "unchanged");
+		}
+	}
+
+	@Test
+	public void getCellDataKeepsEmptyCellsAsEmptyString() throws Exception {
+		String name = file.getName();
+		File testData = new File(ExcelHelper.Path_TestData + name);
+		testData.getParentFile().mkdirs();
+		Files.copy(file.toPath(), testData.toPath());
+		try {
+			ExcelObject excel = new ExcelObject().withExcelFile(name).withSheetName("data").withRow(1).withColumn(0);
+			assertEquals(ExcelHelper.getCellData(excel), "");
+			assertEquals(ExcelHelper.getCellData(excel.withRow(2)), "1");
+			assertEquals(ExcelHelper.getColumData(excel.withColumn(1)).size(), 2);
+		} finally {
+			testData.delete();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package core.support;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import core.support.objects.TestObject;
+
+/**
+ * binds test objects for unit tests. unit tests run outside of the test
+ * listener, so the test object is bound to the test thread directly
+ */
+public class UnitTestHelper {
+
+	/**
+	 * task run by each test thread
+	 */
+	public interface ThreadTask {
+		void run(int thread, int iteration) throws Exception;
+	}
+
+	/**
+	 * creates test object with config values and binds it to the current thread
+	 * 
+	 * @param testId
+	 * @param config
+	 * @return
+	 */
+	public static TestObject bindTest(String testId, Map<String, Object> config) {
+		TestObject test = new TestObject().withTestId(testId).withTestName(testId)
+				.withClassName(UnitTestHelper.class.getSimpleName()).withLog(Logger.getLogger(testId));
+		test.config.putAll(config);
+		TestObject.testInfo.put(testId, test);
+		TestObject.setCurrentTest(testId, test);
+		return test;
+	}
+
+	/**
+	 * removes test object bound to the current thread
+	 * 
+	 * @param testId
+	 */
+	public static void unbindTest(String testId) {
+		TestObject.testInfo.remove(testId);
+		TestObject.setCurrentTest(null, null);
+	}
+
+	/**
+	 * starts local http server on a free port
+	 * 
+	 * @param handler
+	 * @return
+	 * @throws IOException
+	 */
+	public static HttpServer startServer(HttpHandler handler) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", handler);
+		server.setExecutor(Executors.newFixedThreadPool(16));
+		server.start();
+		return server;
+	}
+
+	/**
+	 * runs task on threads, started at the same time. rethrows the first failure
+	 * 
+	 * @param threads
+	 * @param iterations iterations per thread
+	 * @param task
+	 * @throws Exception
+	 */
+	public static void runConcurrently(int threads, int iterations, ThreadTask task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int i = 0; i < threads; i++) {
+				int thread = i;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int j = 0; j < iterations; j++)
+						task.run(thread, j);
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures)
+				future.get(5, TimeUnit.MINUTES);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package core.support.configReader;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import core.support.UnitTestHelper;
+import core.support.objects.TestObject;
+
+/**
+ * config lookups through suite, class and test layers. resolved values are
+ * cached per layer and must reflect writes to any layer
+ */
+public class LayeredConfigTest {
+
+	private static final String TEST_ID = "layered-config";
+
+	private LayeredConfig suite;
+	private LayeredConfig classConfig;
+	private LayeredConfig testConfig;
+
+	@BeforeMethod
+	public void bindTest() {
+		suite = new LayeredConfig();
+		suite.put("suite.key", "suite");
+		suite.put("shared.key", "suite");
+		suite.put("count", "42");
+		suite.put("flag", "true");
+
+		classConfig = new LayeredConfig(suite);
+		classConfig.put("shared.key", "class");
+
+		TestObject test = UnitTestHelper.bindTest(TEST_ID, new HashMap<String, Object>());
+		testConfig = new LayeredConfig(classConfig);
+		test.config = testConfig;
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void unbindTest() {
+		UnitTestHelper.unbindTest(TEST_ID);
+	}
+
+	@Test
+	public void lookupsFallThroughLayers() {
+		assertEquals(Config.getValue("suite.key"), "suite");
+		assertEquals(Config.getValue("shared.key"), "class");
+		assertEquals(Config.getIntValue("count"), 42);
+		assertTrue(Config.getBooleanValue("flag"));
+		assertEquals(Config.getValue("absent.key"), "");
+		assertEquals(Config.getIntValue("absent.key"), -1);
+	}
+
+	@Test
+	public void resolvedValuesAreCached() {
+		LayeredConfig.ConfigValue value = testConfig.getConfigValue("suite.key");
+		assertSame(testConfig.getConfigValue("suite.key"), value);
+
+		LayeredConfig.ConfigValue absent = testConfig.getConfigValue("absent.key");
+		assertTrue(absent.isMissing());
+		assertSame(testConfig.getConfigValue("absent.key"), absent);
+	}
+
+	@Test
+	public void parentWritesInvalidateCachedValues() {
+		assertEquals(Config.getValue("suite.key"), "suite");
+		assertEquals(Config.getValue("absent.key"), "");
+		LayeredConfig.ConfigValue value = testConfig.getConfigValue("suite.key");
+
+		suite.put("suite.key", "updated");
+		suite.put("absent.key", "added");
+
+		assertNotSame(testConfig.getConfigValue("suite.key"), value);
+		assertEquals(Config.getValue("suite.key"), "updated");
+		assertEquals(Config.getValue("absent.key"), "added");
+	}
+
+	@Test
+	public void writesStayInLayer() {
+		Config.putValue("shared.key", "test", false);
+		Config.putValue("count", 7, false);
+
+		assertEquals(Config.getValue("shared.key"), "test");
+		assertEquals(Config.getIntValue("count"), 7);
+		assertEquals(classConfig.get("shared.key"), "class");
+		assertEquals(suite.get("count"), "42");
+	}
+
+	@Test
+	public void removedKeysHideParentValues() {
+		assertEquals(Config.getValue("suite.key"), "suite");
+		testConfig.remove("suite.key");
+
+		assertEquals(Config.getValue("suite.key"), "");
+		assertFalse(testConfig.containsKey("suite.key"));
+		assertEquals(suite.get("suite.key"), "suite");
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void frozenLayerIsReadOnly() {
+		suite.freeze().put("suite.key", "updated");
+	}
+
+	@Test
+	public void mutableValuesAreNotCached() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		testConfig.put("map.key", map);
+		LayeredConfig.ConfigValue value = testConfig.getConfigValue("map.key");
+
+		map.put("key", "value");
+		assertNotSame(testConfig.getConfigValue("map.key"), value);
+		assertEquals(testConfig.getConfigValue("map.key").value, map.toString());
+	}
+}
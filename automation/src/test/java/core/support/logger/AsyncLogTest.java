@@ -0,0 +1,127 @@
+package core.support.logger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Logger;
+import org.apache.log4j.Priority;
+import org.apache.log4j.spi.LoggingEvent;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+
+import core.support.UnitTestHelper;
+import core.support.objects.TestObject;
+import core.uiCore.drivers.AbstractDriver;
+
+/**
+ * console logs and report writes run on the log consumer thread. logs keep the
+ * order and thread name of the test thread, report nodes are created in order
+ */
+public class AsyncLogTest {
+
+	private static final String TEST_ID = "async-log-test";
+	private static final int THREADS = 4;
+	private static final int LOGS = 200;
+
+	private Logger logger;
+	private List<LoggingEvent> events = new CopyOnWriteArrayList<LoggingEvent>();
+
+	@BeforeMethod
+	public void bindTest() {
+		events.clear();
+		logger = Logger.getLogger(TEST_ID);
+		logger.setAdditivity(false);
+		logger.addAppender(new AppenderSkeleton() {
+			@Override
+			protected void append(LoggingEvent event) {
+				events.add(event);
+			}
+
+			@Override
+			public void close() {
+			}
+
+			@Override
+			public boolean requiresLayout() {
+				return false;
+			}
+		});
+
+		Map<String, Object> config = new HashMap<String, Object>();
+		config.put(TestLog.LOG_SKIP_CONSOLE, "true");
+		UnitTestHelper.bindTest(TEST_ID, config);
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void unbindTest() {
+		logger.removeAllAppenders();
+		AbstractDriver.getStep().remove();
+		UnitTestHelper.unbindTest(TEST_ID);
+	}
+
+	@Test
+	public void logsKeepOrderAndThreadName() throws Exception {
+		UnitTestHelper.runConcurrently(THREADS, LOGS, (thread, iteration) -> {
+			Thread.currentThread().setName("log-producer-" + thread);
+			AsyncLog.log(logger, new LogObject(thread + ":" + iteration, Priority.INFO));
+		});
+		AsyncLog.flush();
+
+		assertEquals(events.size(), THREADS * LOGS);
+		int[] next = new int[THREADS];
+		for (LoggingEvent event : events) {
+			String[] value = event.getRenderedMessage().split(":");
+			int thread = Integer.parseInt(value[0]);
+			assertEquals(event.getThreadName(), "log-producer-" + thread);
+			assertEquals(Integer.parseInt(value[1]), next[thread]++);
+		}
+	}
+
+	@Test
+	public void reportWritesRunOnConsumerInOrder() {
+		ExtentTest scenario = new ExtentReports().createTest(TEST_ID);
+		List<String> threads = new CopyOnWriteArrayList<String>();
+
+		List<CompletableFuture<ExtentTest>> nodes = new ArrayList<CompletableFuture<ExtentTest>>();
+		for (int i = 0; i < 10; i++) {
+			String name = "node " + i;
+			nodes.add(AsyncLog.reportNode(() -> {
+				threads.add(Thread.currentThread().getName());
+				return scenario.createNode(name);
+			}));
+		}
+		AsyncLog.flush();
+
+		List<com.aventstack.extentreports.model.Test> created = scenario.getModel().getNodeContext().getAll();
+		assertEquals(created.size(), 10);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(created.get(i).getName(), "node " + i);
+			assertEquals(nodes.get(i).join().getModel(), created.get(i));
+			assertEquals(threads.get(i), "async-log");
+		}
+	}
+
+	@Test
+	public void testStepIsResolvedOnLookup() {
+		ExtentTest scenario = new ExtentReports().createTest(TEST_ID);
+		TestObject.getTestInfo().testScenerio = scenario;
+
+		TestLog.When("step {0}", 1);
+		ExtentTest step = AbstractDriver.getStep().get();
+
+		assertEquals(step.getModel().getName(), "When step 1");
+		assertTrue(TestObject.getTestInfo().testSteps.contains(step));
+	}
+}
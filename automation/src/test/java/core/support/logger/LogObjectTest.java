@@ -0,0 +1,38 @@
+package core.support.logger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.apache.log4j.Priority;
+import org.testng.annotations.Test;
+
+/**
+ * log values are formatted when read, with arguments as at the time of the log
+ */
+public class LogObjectTest {
+
+	@Test
+	public void argumentsAreCapturedAtLogTime() {
+		StringBuilder response = new StringBuilder("first");
+		LogObject log = new LogObject(Priority.INFO, "", "response: {0}", new Object[] { response }, -1);
+
+		response.append(" changed");
+		assertTrue(log.getValue().endsWith("response: first"), log.getValue());
+	}
+
+	@Test
+	public void messageIsTruncatedAfterFormatting() {
+		LogObject log = new LogObject(Priority.INFO, "", "value: {0}", new Object[] { "abcdefghij" }, 10);
+
+		assertTrue(log.getValue().endsWith(" : value: abc..."), log.getValue());
+	}
+
+	@Test
+	public void valueIsFormattedOnce() {
+		LogObject log = new LogObject(Priority.INFO, "prefix ", "{0} of {1}", new Object[] { "step", 2 }, -1);
+
+		String value = log.getValue();
+		assertTrue(value.endsWith(" : prefix step of 2"), value);
+		assertEquals(log.getValue(), value);
+	}
+}
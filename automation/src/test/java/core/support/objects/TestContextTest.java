@@ -0,0 +1,88 @@
+package core.support.objects;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import core.apiCore.helpers.ServiceExecutor;
+import core.support.UnitTestHelper;
+import core.support.configReader.Config;
+
+/**
+ * test objects bound to the test thread. lookups return the bound test object
+ * until the test id of the thread changes
+ */
+public class TestContextTest {
+
+	private static final String TEST_ID = "test-context";
+	private static final String OTHER_TEST_ID = "test-context-other";
+
+	@AfterMethod(alwaysRun = true)
+	public void unbindTest() {
+		UnitTestHelper.unbindTest(OTHER_TEST_ID);
+		UnitTestHelper.unbindTest(TEST_ID);
+	}
+
+	@Test
+	public void lookupsReturnBoundTest() {
+		TestObject test = UnitTestHelper.bindTest(TEST_ID, new HashMap<String, Object>());
+
+		assertSame(TestObject.getTestInfo(), test);
+		assertSame(TestObject.getCurrentTest(), test);
+		assertEquals(TestObject.getTestId(), TEST_ID);
+	}
+
+	@Test
+	public void settingTestIdReleasesBoundTest() {
+		UnitTestHelper.bindTest(TEST_ID, new HashMap<String, Object>());
+		TestObject other = new TestObject().withTestId(OTHER_TEST_ID);
+		TestObject.testInfo.put(OTHER_TEST_ID, other);
+
+		TestObject.currentTestId.set(OTHER_TEST_ID);
+		assertNull(TestObject.getCurrentTest());
+		assertSame(TestObject.getTestInfo(), other);
+		assertSame(TestObject.getCurrentTest(), other);
+	}
+
+	@Test
+	public void testIsResolvedOnFirstLookup() {
+		// test id is set before the test object is created
+		TestObject.setCurrentTest(TEST_ID, null);
+		TestObject test = new TestObject().withTestId(TEST_ID);
+		TestObject.testInfo.put(TEST_ID, test);
+
+		assertNull(TestObject.getCurrentTest());
+		assertSame(TestObject.getTestInfo(), test);
+		assertSame(TestObject.getCurrentTest(), test);
+	}
+
+	@Test
+	public void threadsLookUpOwnTest() throws Exception {
+		UnitTestHelper.runConcurrently(8, 100, (thread, iteration) -> {
+			String testId = TEST_ID + thread;
+			Map<String, Object> config = new HashMap<String, Object>();
+			config.put("thread", String.valueOf(thread));
+			TestObject test = UnitTestHelper.bindTest(testId, config);
+			try {
+				assertSame(TestObject.getTestInfo(), test);
+				assertEquals(Config.getIntValue("thread"), thread);
+			} finally {
+				UnitTestHelper.unbindTest(testId);
+			}
+		});
+	}
+
+	@Test
+	public void asyncTasksRunWithTestContext() {
+		TestObject test = UnitTestHelper.bindTest(TEST_ID, new HashMap<String, Object>());
+
+		assertSame(ServiceExecutor.join(ServiceExecutor.supplyAsync(TestObject::getTestInfo)), test);
+		assertSame(TestObject.getTestInfo(), test);
+	}
+}
@@ -0,0 +1,120 @@
+package core.support.objects;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Priority;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import core.support.UnitTestHelper;
+import core.support.logger.LogObject;
+
+/**
+ * archiving of finished tests. tests beyond the retention window are removed
+ * from testInfo and from their parent test, only their ids are kept
+ */
+public class TestObjectArchiveTest {
+
+	private static final int LOGS_PER_TEST = 10;
+
+	private final List<String> testIds = new ArrayList<String>();
+	private Map<String, Object> config;
+
+	@BeforeMethod
+	public void setConfig() {
+		config = new HashMap<String, Object>();
+		config.put(TestObject.TEST_ARCHIVE_RETAIN_COUNT, "2");
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void unbindTests() {
+		for (String testId : testIds)
+			UnitTestHelper.unbindTest(testId);
+		testIds.clear();
+	}
+
+	@Test
+	public void compactedTestsAreRemoved() {
+		for (int i = 1; i <= 10; i++)
+			TestObject.archiveTest(runTest("archive-" + i));
+
+		for (int i = 1; i <= 8; i++) {
+			assertNull(TestObject.testInfo.get("archive-" + i));
+			assertTrue(TestObject.isTestObjectSet("archive-" + i));
+		}
+		assertTrue(TestObject.testInfo.containsKey("archive-9"));
+		assertTrue(TestObject.testInfo.containsKey("archive-10"));
+	}
+
+	@Test
+	public void compactedTestsAreReleased() throws Exception {
+		WeakReference<TestObject> compacted = new WeakReference<TestObject>(runTest("release-1"));
+		TestObject.archiveTest(compacted.get());
+		for (int i = 2; i <= 4; i++)
+			TestObject.archiveTest(runTest("release-" + i));
+
+		for (int i = 0; i < 10 && compacted.get() != null; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		assertNull(compacted.get());
+	}
+
+	@Test
+	public void compactedChildTestsAreRemovedFromParent() {
+		TestObject parent = runTest("parent-archive");
+		String failedTest = null;
+		for (int i = 1; i <= 10; i++) {
+			TestObject child = runTest("child-archive-" + i);
+			child.parentTest = parent;
+			if (i == 1) {
+				child.withCaughtThrowable(new AssertionError("failed"));
+				failedTest = child.getTestName();
+			}
+			synchronized (parent) {
+				parent.testObjects.add(child);
+			}
+			TestObject.archiveTest(child);
+		}
+
+		assertEquals(parent.testObjects.size(), 2);
+		assertEquals(parent.failedChildTests.size(), 1);
+		assertEquals(parent.failedChildTests.get(0), failedTest);
+	}
+
+	@Test
+	public void retriedTestIsNotCompacted() {
+		// first run fails and is archived, then run again by retry analyzer
+		TestObject retried = runTest("retry-1");
+		TestObject.archiveTest(retried);
+		TestObject.restoreTest(retried);
+
+		// later tests push archived tests out of the retention window
+		for (int i = 2; i <= 4; i++)
+			TestObject.archiveTest(runTest("retry-" + i));
+
+		assertFalse(retried.isArchived);
+		assertEquals(retried.testLog.size(), LOGS_PER_TEST);
+		assertTrue(TestObject.testInfo.containsKey("retry-1"));
+	}
+
+	private TestObject runTest(String testId) {
+		testIds.add(testId);
+		TestObject test = UnitTestHelper.bindTest(testId, config);
+		for (int j = 0; j < LOGS_PER_TEST; j++) {
+			test.testLog.add(new LogObject("log " + j, Priority.INFO));
+			test.testSubSteps.add("step " + j);
+		}
+		return test;
+	}
+}